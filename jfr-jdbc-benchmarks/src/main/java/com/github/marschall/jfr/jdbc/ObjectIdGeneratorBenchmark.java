@@ -0,0 +1,40 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compares the id generation of {@link ObjectIdGenerator} with a single
+ * shared {@link AtomicLong}.
+ * <p>
+ * Run with different thread counts to see the scaling difference, eg.
+ * {@code java -jar target/benchmarks.jar ObjectIdGeneratorBenchmark -t 1}
+ * and {@code -t 64}.
+ * <p>
+ * In the same package as {@link ObjectIdGenerator} as it is package private,
+ * works because benchmarks run on the class path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class ObjectIdGeneratorBenchmark {
+
+  private static final AtomicLong CURRENT_ID = new AtomicLong();
+
+  @Benchmark
+  public long sharedAtomicLong() {
+    return CURRENT_ID.incrementAndGet();
+  }
+
+  @Benchmark
+  public long threadLocalBlock() {
+    return ObjectIdGenerator.nextId();
+  }
+
+}
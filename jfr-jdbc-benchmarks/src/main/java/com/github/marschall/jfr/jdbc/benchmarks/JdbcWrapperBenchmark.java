@@ -0,0 +1,232 @@
+package com.github.marschall.jfr.jdbc.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.marschall.jfr.jdbc.JfrDataSource;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+/**
+ * Measures the per call overhead of the wrapper objects compared to the
+ * raw H2 objects.
+ * <p>
+ * Run with {@code -prof gc} to catch allocation regressions, eg.
+ * {@code java -jar target/benchmarks.jar -prof gc}, {@link #main(String[])}
+ * does this by default.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class JdbcWrapperBenchmark {
+
+  static final String QUERY = "SELECT ID, NAME FROM BENCHMARK_TABLE WHERE ID < ?";
+
+  static final int ROW_COUNT = 10;
+
+  @Param({"raw", "jfr"})
+  public String dataSourceType;
+
+  /**
+   * <dl>
+   *  <dt>off</dt>
+   *  <dd>no recording running</dd>
+   *  <dt>default</dt>
+   *  <dd>recording with the default settings, all JDBC events enabled</dd>
+   *  <dt>threshold</dt>
+   *  <dd>recording with the default settings, JDBC events with a threshold
+   *  that is never reached</dd>
+   * </dl>
+   */
+  @Param({"off", "default", "threshold"})
+  public String recordingMode;
+
+  private JdbcDataSource h2DataSource;
+
+  private Connection setupConnection;
+
+  DataSource dataSource;
+
+  private Recording recording;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    this.h2DataSource = new JdbcDataSource();
+    this.h2DataSource.setURL("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+    // keep the database alive
+    this.setupConnection = this.h2DataSource.getConnection();
+    try (var statement = this.setupConnection.createStatement()) {
+      statement.execute("CREATE TABLE IF NOT EXISTS BENCHMARK_TABLE(ID INT PRIMARY KEY, NAME VARCHAR(32))");
+      statement.execute("DELETE FROM BENCHMARK_TABLE");
+    }
+    try (var preparedStatement = this.setupConnection.prepareStatement("INSERT INTO BENCHMARK_TABLE(ID, NAME) VALUES(?, ?)")) {
+      for (int i = 0; i < ROW_COUNT; i++) {
+        preparedStatement.setInt(1, i);
+        preparedStatement.setString(2, "name-" + i);
+        preparedStatement.addBatch();
+      }
+      preparedStatement.executeBatch();
+    }
+
+    switch (this.dataSourceType) {
+      case "raw":
+        this.dataSource = this.h2DataSource;
+        break;
+      case "jfr":
+        this.dataSource = new JfrDataSource(this.h2DataSource);
+        break;
+      default:
+        throw new IllegalArgumentException("unknown data source type: " + this.dataSourceType);
+    }
+
+    switch (this.recordingMode) {
+      case "off":
+        this.recording = null;
+        break;
+      case "default":
+        this.recording = new Recording(Configuration.getConfiguration("default"));
+        for (String eventName : jdbcEventNames(this.h2DataSource)) {
+          this.recording.enable(eventName);
+        }
+        break;
+      case "threshold":
+        this.recording = new Recording(Configuration.getConfiguration("default"));
+        for (String eventName : jdbcEventNames(this.h2DataSource)) {
+          this.recording.enable(eventName).withThreshold(Duration.ofSeconds(1L));
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("unknown recording mode: " + this.recordingMode);
+    }
+    if (this.recording != null) {
+      this.recording.start();
+    }
+  }
+
+  /**
+   * The names of all the events in the JDBC category so that new events
+   * are included without having to update the benchmark.
+   */
+  private static List<String> jdbcEventNames(DataSource dataSource) throws SQLException {
+    // getting a connection registers all the JDBC event types
+    FlightRecorder.getFlightRecorder();
+    new JfrDataSource(dataSource).getConnection().close();
+    return FlightRecorder.getFlightRecorder().getEventTypes().stream()
+            .filter(eventType -> eventType.getCategoryNames().contains("JDBC"))
+            .map(EventType::getName)
+            .collect(Collectors.toList());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    if (this.recording != null) {
+      this.recording.close();
+    }
+    this.setupConnection.close();
+  }
+
+  @Benchmark
+  public void prepareClose(ConnectionState state) throws SQLException {
+    state.connection.prepareStatement(QUERY).close();
+  }
+
+  @Benchmark
+  public void executeNextGetters(StatementState state, Blackhole blackhole) throws SQLException {
+    readRows(state.preparedStatement, blackhole);
+  }
+
+  @Benchmark
+  public void prepareExecuteNextGettersClose(ConnectionState state, Blackhole blackhole) throws SQLException {
+    try (var preparedStatement = state.connection.prepareStatement(QUERY)) {
+      readRows(preparedStatement, blackhole);
+    }
+  }
+
+  private static void readRows(PreparedStatement preparedStatement, Blackhole blackhole) throws SQLException {
+    preparedStatement.setInt(1, ROW_COUNT);
+    try (var resultSet = preparedStatement.executeQuery()) {
+      while (resultSet.next()) {
+        blackhole.consume(resultSet.getInt(1));
+        blackhole.consume(resultSet.getString(2));
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ConnectionState {
+
+    Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp(JdbcWrapperBenchmark benchmark) throws SQLException {
+      // after the recording has been started so that the connection is wrapped
+      this.connection = benchmark.dataSource.getConnection();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+      this.connection.close();
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class StatementState {
+
+    PreparedStatement preparedStatement;
+
+    @Setup(Level.Trial)
+    public void setUp(ConnectionState connectionState) throws SQLException {
+      this.preparedStatement = connectionState.connection.prepareStatement(QUERY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+      this.preparedStatement.close();
+    }
+
+  }
+
+  /**
+   * Runs the benchmark with the GC profiler.
+   *
+   * @param args not used
+   * @throws RunnerException if the benchmark fails
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+            .include(JdbcWrapperBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,148 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes aggregates in a compact binary format.
+ * <p>
+ * An aggregate file contains the count, total time, rows, errors and
+ * non-empty histogram buckets per statement. Aggregate files can be merged without
+ * loss, the result of merging aggregate files can again be written as an
+ * aggregate file which allows to reduce the aggregates of many JVMs
+ * hierarchically.
+ * <p>
+ * The format is a GZIP compressed stream of a header with a magic number,
+ * a version and whether statements are grouped by fingerprint followed by
+ * the statements.
+ */
+final class AggregateFile {
+
+  static final int MAGIC = 0x4a4a4147; // "JJAG"
+
+  private static final int VERSION = 2;
+
+  private static final int NULL_LENGTH = -1;
+
+  private AggregateFile() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Checks whether a file is an aggregate file rather than a recording.
+   *
+   * @param file the file to check
+   * @return whether the file is an aggregate file
+   * @throws IOException if the file can not be read
+   */
+  static boolean isAggregateFile(Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      byte[] header = in.readNBytes(2);
+      // GZIP magic number
+      return header.length == 2 && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b;
+    }
+  }
+
+  /**
+   * Writes all the aggregates of an aggregator.
+   *
+   * @param aggregator the aggregator to write
+   * @param file the file to write to
+   * @throws IOException if writing fails
+   */
+  static void write(JdbcAggregator aggregator, Path file) throws IOException {
+    try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeBoolean(aggregator.isByFingerprint());
+      var aggregates = aggregator.getAggregates();
+      out.writeInt(aggregates.size());
+      for (StatementAggregate aggregate : aggregates) {
+        writeString(aggregate.key.kind, out);
+        writeString(aggregate.key.operation, out);
+        writeString(aggregate.key.query, out);
+        out.writeLong(aggregate.count);
+        out.writeLong(aggregate.totalTime);
+        out.writeLong(aggregate.rowCount);
+        out.writeLong(aggregate.errorCount);
+        aggregate.histogram.writeTo(out);
+      }
+    }
+  }
+
+  /**
+   * Reads an aggregate file and adds its aggregates.
+   *
+   * @param file the file to read
+   * @param aggregator the aggregator to add the aggregates to
+   * @throws IOException if reading fails, the file is not an aggregate file
+   *                     or the statements were grouped differently
+   */
+  static void read(Path file, JdbcAggregator aggregator) throws IOException {
+    try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("not an aggregate file: " + file);
+      }
+      int version = in.readUnsignedShort();
+      // version 1 had no error count
+      if ((version != 1) && (version != VERSION)) {
+        throw new IOException("unsupported version " + version + " of aggregate file: " + file);
+      }
+      if (in.readBoolean() != aggregator.isByFingerprint()) {
+        throw new IOException("statements in aggregate file " + file + " are grouped differently");
+      }
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        var key = new StatementAggregate.Key(readString(in), readString(in), readString(in));
+        if (key.kind == null) {
+          throw new IOException("missing kind in aggregate file: " + file);
+        }
+        var aggregate = new StatementAggregate(key);
+        aggregate.count = in.readLong();
+        aggregate.totalTime = in.readLong();
+        aggregate.rowCount = in.readLong();
+        if (version > 1) {
+          aggregate.errorCount = in.readLong();
+        }
+        aggregate.histogram.mergeFrom(in);
+        aggregator.merge(aggregate);
+      }
+    }
+  }
+
+  private static void writeString(String s, DataOutput out) throws IOException {
+    if (s == null) {
+      out.writeInt(NULL_LENGTH);
+      return;
+    }
+    // not writeUTF because query strings can be longer than 64k
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    if (length < 0) {
+      throw new IOException("invalid string length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
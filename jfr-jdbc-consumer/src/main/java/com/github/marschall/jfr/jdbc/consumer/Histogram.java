@@ -0,0 +1,174 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A log-linear histogram of latencies in nanoseconds.
+ * <p>
+ * Uses the same buckets as the histograms of
+ * {@code JdbcStatementStatisticsEvent}, every power of two is split into
+ * {@value #SUB_BUCKET_COUNT} linear sub buckets so the relative error of a
+ * percentile is at most 12.5%. Histograms can be merged without loss.
+ * <p>
+ * Not thread safe.
+ */
+final class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+  static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final long[] counts;
+
+  private long count;
+
+  private long maxValue;
+
+  Histogram() {
+    this.counts = new long[BUCKET_COUNT];
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return Math.max((int) value, 0);
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long lowerBound(int bucketIndex) {
+    if (bucketIndex < SUB_BUCKET_COUNT) {
+      return bucketIndex;
+    }
+    int bucket = bucketIndex / SUB_BUCKET_COUNT;
+    int subBucket = bucketIndex % SUB_BUCKET_COUNT;
+    int exponent = bucket + SUB_BUCKET_BITS - 1;
+    return ((long) SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  static long upperBound(int bucketIndex) {
+    if (bucketIndex == BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return lowerBound(bucketIndex + 1) - 1L;
+  }
+
+  void record(long nanos) {
+    this.counts[bucketIndex(nanos)] += 1L;
+    this.count += 1L;
+    if (nanos > this.maxValue) {
+      this.maxValue = nanos;
+    }
+  }
+
+  void merge(Histogram other) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      this.counts[i] += other.counts[i];
+    }
+    this.count += other.count;
+    this.maxValue = Math.max(this.maxValue, other.maxValue);
+  }
+
+  /**
+   * Writes the non-empty buckets.
+   *
+   * @param out the output to write to
+   * @throws IOException if writing fails
+   */
+  void writeTo(DataOutput out) throws IOException {
+    int nonEmpty = 0;
+    for (long bucketCount : this.counts) {
+      if (bucketCount != 0L) {
+        nonEmpty += 1;
+      }
+    }
+    out.writeLong(this.maxValue);
+    out.writeShort(nonEmpty);
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      long bucketCount = this.counts[i];
+      if (bucketCount != 0L) {
+        out.writeShort(i);
+        out.writeLong(bucketCount);
+      }
+    }
+  }
+
+  /**
+   * Reads buckets written by {@link #writeTo(DataOutput)} and adds them.
+   *
+   * @param in the input to read from
+   * @throws IOException if reading fails or the data is invalid
+   */
+  void mergeFrom(DataInput in) throws IOException {
+    this.maxValue = Math.max(this.maxValue, in.readLong());
+    int nonEmpty = in.readUnsignedShort();
+    for (int i = 0; i < nonEmpty; i++) {
+      int index = in.readUnsignedShort();
+      if (index >= BUCKET_COUNT) {
+        throw new IOException("invalid bucket index: " + index);
+      }
+      long bucketCount = in.readLong();
+      this.counts[index] += bucketCount;
+      this.count += bucketCount;
+    }
+  }
+
+  /**
+   * Counts the values up to several limits in a single pass over the
+   * buckets.
+   *
+   * @param limits the limits in ascending order
+   * @param counts receives at the index of each limit the number of values
+   *               in buckets with an upper bound of at most the limit
+   */
+  void countAtOrBelow(long[] limits, long[] counts) {
+    long count = 0L;
+    int bucket = 0;
+    for (int i = 0; i < limits.length; i++) {
+      long limit = limits[i];
+      while (bucket < BUCKET_COUNT && upperBound(bucket) <= limit) {
+        count += this.counts[bucket];
+        bucket += 1;
+      }
+      counts[i] = count;
+    }
+  }
+
+  long getCount() {
+    return this.count;
+  }
+
+  long getMaxValue() {
+    return this.maxValue;
+  }
+
+  /**
+   * Computes a percentile.
+   *
+   * @param percentile the percentile between 0.0 and 1.0
+   * @return the upper bound of the bucket containing the percentile,
+   *         at most the maximum value
+   */
+  long percentile(double percentile) {
+    if (this.count == 0L) {
+      return 0L;
+    }
+    long rank = Math.max((long) Math.ceil(percentile * this.count), 1L);
+    long seen = 0L;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += this.counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), this.maxValue);
+      }
+    }
+    return this.maxValue;
+  }
+
+}
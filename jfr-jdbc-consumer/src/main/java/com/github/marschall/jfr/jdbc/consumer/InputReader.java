@@ -0,0 +1,107 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reads many recordings and aggregate files in parallel.
+ * <p>
+ * The inputs are split in halves on a {@link ForkJoinPool}, recordings are
+ * additionally split into chunks, and the aggregates are merged pairwise
+ * in input order. Only the aggregates and not the events are kept in
+ * memory, the maximum number of distinct statements is applied after the
+ * merge so that the result is the same as when reading sequentially.
+ */
+final class InputReader {
+
+  private InputReader() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Reads recordings or aggregate files in parallel.
+   *
+   * @param inputs the recordings and aggregate files
+   * @param maxStatements the maximum number of distinct statements
+   * @param byFingerprint whether to aggregate by fingerprint
+   * @param pool the pool to read the inputs in
+   * @return the merged aggregates
+   * @throws IOException if an input can not be read
+   */
+  static JdbcAggregator read(List<Path> inputs, int maxStatements, boolean byFingerprint, ForkJoinPool pool) throws IOException {
+    if (inputs.isEmpty()) {
+      return new JdbcAggregator(maxStatements, byFingerprint);
+    }
+    try {
+      return pool.invoke(new InputTask(inputs, 0, inputs.size(), byFingerprint)).limit(maxStatements);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Reads a recording or aggregate file sequentially.
+   *
+   * @param input the recording or aggregate file
+   * @param aggregator the aggregator to add to
+   * @throws IOException if the input can not be read
+   */
+  static void read(Path input, JdbcAggregator aggregator) throws IOException {
+    if (AggregateFile.isAggregateFile(input)) {
+      AggregateFile.read(input, aggregator);
+    } else {
+      JdbcAnalyzer.read(input, aggregator);
+    }
+  }
+
+  static final class InputTask extends RecursiveTask<JdbcAggregator> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Path> inputs;
+
+    private final int from;
+
+    private final int to;
+
+    private final boolean byFingerprint;
+
+    InputTask(List<Path> inputs, int from, int to, boolean byFingerprint) {
+      this.inputs = inputs;
+      this.from = from;
+      this.to = to;
+      this.byFingerprint = byFingerprint;
+    }
+
+    @Override
+    protected JdbcAggregator compute() {
+      if (this.to - this.from == 1) {
+        Path input = this.inputs.get(this.from);
+        try {
+          if (AggregateFile.isAggregateFile(input)) {
+            var aggregator = new JdbcAggregator(JdbcAggregator.UNLIMITED, this.byFingerprint);
+            AggregateFile.read(input, aggregator);
+            return aggregator;
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return ParallelRecordingReader.readInPool(input, this.byFingerprint);
+      }
+      int middle = (this.from + this.to) >>> 1;
+      var left = new InputTask(this.inputs, this.from, middle, this.byFingerprint);
+      var right = new InputTask(this.inputs, middle, this.to, this.byFingerprint);
+      right.fork();
+      // merged in input order
+      JdbcAggregator result = left.compute();
+      result.merge(right.join());
+      return result;
+    }
+
+  }
+
+}
@@ -0,0 +1,298 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+/**
+ * Aggregates the {@code JdbcCallEvent}s, {@code JdbcOperationEvent}s and
+ * {@code JdbcSavepointEvent}s per query string and operation.
+ * <p>
+ * Query ids of events recorded with {@code JdbcQueryTextEvent} enabled are
+ * resolved with the {@code JdbcQueryTextEvent}s of the same recording.
+ * <p>
+ * Not thread safe.
+ */
+final class JdbcAggregator {
+
+  static final String CALL_EVENT = "com.github.marschall.jfr.jdbc.JdbcCallEvent";
+
+  static final String OPERATION_EVENT = "com.github.marschall.jfr.jdbc.JdbcOperationEvent";
+
+  static final String FETCH_EVENT = "com.github.marschall.jfr.jdbc.JdbcFetchEvent";
+
+  static final String SAVEPOINT_EVENT = "com.github.marschall.jfr.jdbc.JdbcSavepointEvent";
+
+  static final String QUERY_TEXT_EVENT = "com.github.marschall.jfr.jdbc.JdbcQueryTextEvent";
+
+  private static final String QUERY_ID_PREFIX = "queryId ";
+
+  static final Comparator<StatementStatistics> BY_TOTAL_TIME =
+          Comparator.comparingLong(StatementStatistics::getTotalTime).reversed();
+
+  /**
+   * The default maximum number of distinct statements.
+   */
+  static final int DEFAULT_MAX_STATEMENTS = 10_000;
+
+  /**
+   * The maximum number of distinct statements of an aggregator that is
+   * limited with {@link #limit(int)} after reading.
+   */
+  static final int UNLIMITED = Integer.MAX_VALUE;
+
+  /**
+   * The query of the aggregate collecting the statements exceeding the
+   * maximum number of distinct statements.
+   */
+  static final String OTHER = "(other)";
+
+  // in the order of the first event of each statement, see #limit(int)
+  private final Map<StatementAggregate.Key, StatementAggregate> aggregates;
+
+  // query id to query string or fingerprint of the recording being read
+  private final Map<Long, String> queryTexts;
+
+  private final int maxStatements;
+
+  private final boolean byFingerprint;
+
+  JdbcAggregator() {
+    this(DEFAULT_MAX_STATEMENTS);
+  }
+
+  JdbcAggregator(int maxStatements) {
+    this(maxStatements, false);
+  }
+
+  /**
+   * Constructs a new aggregator.
+   *
+   * @param maxStatements the maximum number of distinct statements, once
+   *                      reached new statements are aggregated per kind
+   *                      with the query {@value #OTHER} so that the memory
+   *                      stays bounded
+   * @param byFingerprint whether to aggregate by fingerprint instead of
+   *                      query string, groups queries that only differ
+   *                      in literals
+   */
+  JdbcAggregator(int maxStatements, boolean byFingerprint) {
+    this.aggregates = new LinkedHashMap<>();
+    this.queryTexts = new HashMap<>();
+    this.maxStatements = maxStatements;
+    this.byFingerprint = byFingerprint;
+  }
+
+  int getMaxStatements() {
+    return this.maxStatements;
+  }
+
+  boolean isByFingerprint() {
+    return this.byFingerprint;
+  }
+
+  /**
+   * Adds an event, events of other types are ignored.
+   *
+   * @param event the event to add
+   */
+  void accept(RecordedEvent event) {
+    StatementAggregate.Key key;
+    long rows = 0L;
+    boolean failed = false;
+    switch (event.getEventType().getName()) {
+      case CALL_EVENT:
+        key = new StatementAggregate.Key("call", null, this.query(event));
+        rows = event.getLong("rowCount");
+        failed = isFailed(event);
+        break;
+      case OPERATION_EVENT:
+        key = new StatementAggregate.Key("operation",
+                event.getString("operationObject") + '.' + event.getString("operationName"), this.query(event));
+        failed = isFailed(event);
+        break;
+      case SAVEPOINT_EVENT:
+        key = new StatementAggregate.Key("savepoint", "Savepoint." + event.getString("operationName"), null);
+        break;
+      case QUERY_TEXT_EVENT:
+        this.addQueryText(event);
+        return;
+      default:
+        return;
+    }
+    this.aggregate(key).record(event.getDuration().toNanos(), rows, failed);
+  }
+
+  private static boolean isFailed(RecordedEvent event) {
+    // recordings of older versions do not have the field
+    return event.hasField("failed") && event.getBoolean("failed");
+  }
+
+  private StatementAggregate aggregate(StatementAggregate.Key key) {
+    var aggregate = this.aggregates.get(key);
+    if (aggregate == null) {
+      if (this.aggregates.size() >= this.maxStatements) {
+        key = new StatementAggregate.Key(key.kind, null, OTHER);
+      }
+      aggregate = this.aggregates.computeIfAbsent(key, StatementAggregate::new);
+    }
+    return aggregate;
+  }
+
+  private void addQueryText(RecordedEvent event) {
+    // bounded like the aggregates, query ids without text are reported as is
+    if (this.queryTexts.size() < this.maxStatements) {
+      String text = event.getString(this.byFingerprint ? "fingerprint" : "query");
+      if (text != null && !text.isEmpty()) {
+        this.queryTexts.putIfAbsent(event.getLong("queryId"), text);
+      }
+    }
+  }
+
+  /**
+   * The query string or fingerprint of an event, falls back to the other
+   * one and the query id if the events do not contain it.
+   */
+  private String query(RecordedEvent event) {
+    String first = event.getString(this.byFingerprint ? "fingerprint" : "query");
+    if (first != null && !first.isEmpty()) {
+      return first;
+    }
+    String second = event.getString(this.byFingerprint ? "query" : "fingerprint");
+    if (second != null && !second.isEmpty()) {
+      return second;
+    }
+    if (event.hasField("queryId")) {
+      long queryId = event.getLong("queryId");
+      if (queryId != 0L) {
+        String text = this.queryTexts.get(queryId);
+        if (text != null) {
+          return text;
+        }
+        // the JdbcQueryTextEvent may come later in the chunk, see #resolveQueryIds()
+        return QUERY_ID_PREFIX + Long.toHexString(queryId);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Called after a recording has been read, moves the events read before
+   * the {@code JdbcQueryTextEvent} of their query id to the aggregate of
+   * the query string or fingerprint. The aggregate keeps the position of
+   * the first of them so that the order does not depend on which chunk
+   * the query text was read from.
+   * <p>
+   * The query texts are forgotten, every chunk contains the query texts
+   * of its events.
+   */
+  void resolveQueryIds() {
+    if (this.queryTexts.isEmpty()) {
+      return;
+    }
+    Map<StatementAggregate.Key, StatementAggregate> resolved = new LinkedHashMap<>();
+    for (StatementAggregate aggregate : this.aggregates.values()) {
+      var key = this.resolveQueryId(aggregate.key);
+      var existing = resolved.get(key);
+      if (existing == null) {
+        if (key == aggregate.key) {
+          resolved.put(key, aggregate);
+        } else {
+          var moved = new StatementAggregate(key);
+          moved.merge(aggregate);
+          resolved.put(key, moved);
+        }
+      } else {
+        existing.merge(aggregate);
+      }
+    }
+    this.aggregates.clear();
+    this.aggregates.putAll(resolved);
+    this.queryTexts.clear();
+  }
+
+  private StatementAggregate.Key resolveQueryId(StatementAggregate.Key key) {
+    String query = key.query;
+    if (query != null && query.startsWith(QUERY_ID_PREFIX)) {
+      long queryId = Long.parseUnsignedLong(query.substring(QUERY_ID_PREFIX.length()), 16);
+      String text = this.queryTexts.get(queryId);
+      if (text != null) {
+        return new StatementAggregate.Key(key.kind, key.operation, text);
+      }
+    }
+    return key;
+  }
+
+  /**
+   * Adds all the aggregates of an other aggregator.
+   * <p>
+   * If both are {@link #UNLIMITED} and {@code other} contains the events
+   * after the ones of this aggregator the order of the aggregates is the
+   * same as if all events had been added to a single aggregator.
+   *
+   * @param other the aggregator to add
+   */
+  void merge(JdbcAggregator other) {
+    for (StatementAggregate aggregate : other.aggregates.values()) {
+      this.merge(aggregate);
+    }
+  }
+
+  /**
+   * Adds an aggregate read from an aggregate file.
+   *
+   * @param aggregate the aggregate to add
+   */
+  void merge(StatementAggregate aggregate) {
+    this.aggregate(aggregate.key).merge(aggregate);
+  }
+
+  /**
+   * Applies a maximum number of distinct statements to an
+   * {@link #UNLIMITED} aggregator.
+   * <p>
+   * The statements exceeding the maximum are the same as if the events had
+   * been added to an aggregator with the maximum, so the result does not
+   * depend on whether the events were read sequentially or in parallel
+   * and merged in order.
+   *
+   * @param maxStatements the maximum number of distinct statements
+   * @return an aggregator with at most {@code maxStatements} statements
+   *         and the ones exceeding it aggregated as {@value #OTHER}
+   */
+  JdbcAggregator limit(int maxStatements) {
+    var limited = new JdbcAggregator(maxStatements, this.byFingerprint);
+    limited.merge(this);
+    return limited;
+  }
+
+  Collection<StatementAggregate> getAggregates() {
+    return this.aggregates.values();
+  }
+
+  void reset() {
+    this.aggregates.clear();
+    this.queryTexts.clear();
+  }
+
+  /**
+   * Computes the statistics of all aggregates.
+   *
+   * @return the statistics sorted by descending total time
+   */
+  List<StatementStatistics> getStatistics() {
+    var statistics = new ArrayList<StatementStatistics>(this.aggregates.size());
+    for (StatementAggregate aggregate : this.aggregates.values()) {
+      statistics.add(aggregate.toStatistics());
+    }
+    statistics.sort(BY_TOTAL_TIME);
+    return statistics;
+  }
+
+}
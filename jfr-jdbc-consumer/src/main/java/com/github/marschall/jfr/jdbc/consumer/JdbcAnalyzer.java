@@ -0,0 +1,141 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Command line tool that reads JFR recordings and prints the statements
+ * with the highest total time, count, 99th percentile and rows.
+ * <p>
+ * The events are read one by one and aggregated per query string, the
+ * memory used depends on the number of distinct statements and not on the
+ * size of the recording. Unless {@code --threads 1} is given the chunks of
+ * a recording are parsed in parallel, every chunk is copied to a temporary
+ * file which needs up to the size of the recording in temporary disk
+ * space. The maximum number of distinct statements is applied after
+ * reading so that the result does not depend on the number of threads.
+ * <p>
+ * With {@code --write-aggregate} the aggregates are written to an
+ * aggregate file instead of printing a report. Aggregate files can be
+ * passed instead of recordings, this allows to aggregate the recordings of
+ * each JVM separately and merge them into a single report.
+ *
+ * <pre><code>
+ * java -jar jfr-jdbc-consumer.jar [--format text|json] [--top n] recording.jfr|aggregate...
+ * </code></pre>
+ */
+public final class JdbcAnalyzer {
+
+  private static final String USAGE = "usage: JdbcAnalyzer [--format text|json] [--top n] [--max-statements n] [--threads n] [--by-fingerprint] [--write-aggregate file] recording.jfr|aggregate...\n"
+          + "unless --threads is 1 the chunks of a recording are copied to temporary files, this needs up to the size of the recording in temporary disk space";
+
+  private JdbcAnalyzer() {
+    throw new AssertionError("not instantiable");
+  }
+
+  public static void main(String[] args) throws IOException {
+    String format = "text";
+    int top = 10;
+    int maxStatements = JdbcAggregator.DEFAULT_MAX_STATEMENTS;
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean byFingerprint = false;
+    Path aggregateFile = null;
+    List<Path> files = new ArrayList<>();
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--format":
+            format = args[++i];
+            break;
+          case "--top":
+            top = Integer.parseInt(args[++i]);
+            break;
+          case "--max-statements":
+            maxStatements = Integer.parseInt(args[++i]);
+            break;
+          case "--threads":
+            threads = Integer.parseInt(args[++i]);
+            break;
+          case "--by-fingerprint":
+            byFingerprint = true;
+            break;
+          case "--write-aggregate":
+            aggregateFile = Paths.get(args[++i]);
+            break;
+          default:
+            files.add(Paths.get(args[i]));
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+      usage();
+      return;
+    }
+    if (files.isEmpty() || !(format.equals("text") || format.equals("json")) || top <= 0 || maxStatements <= 0 || threads <= 0) {
+      usage();
+      return;
+    }
+
+    JdbcAggregator aggregator;
+    if (threads == 1) {
+      var unlimited = new JdbcAggregator(JdbcAggregator.UNLIMITED, byFingerprint);
+      for (Path file : files) {
+        InputReader.read(file, unlimited);
+      }
+      aggregator = unlimited.limit(maxStatements);
+    } else {
+      var pool = new ForkJoinPool(threads);
+      try {
+        aggregator = InputReader.read(files, maxStatements, byFingerprint, pool);
+      } finally {
+        pool.shutdown();
+      }
+    }
+    if (aggregateFile != null) {
+      AggregateFile.write(aggregator, aggregateFile);
+      return;
+    }
+    var out = new PrintWriter(System.out, false, StandardCharsets.UTF_8);
+    report(aggregator, format, top, out);
+    out.flush();
+  }
+
+  private static void usage() {
+    System.err.println(USAGE);
+    System.exit(2);
+  }
+
+  /**
+   * Reads all the JDBC events of a recording.
+   *
+   * @param file the recording to read
+   * @param aggregator the aggregator to add the events to
+   * @throws IOException if the recording can not be read
+   */
+  static void read(Path file, JdbcAggregator aggregator) throws IOException {
+    try (var recordingFile = new RecordingFile(file)) {
+      while (recordingFile.hasMoreEvents()) {
+        aggregator.accept(recordingFile.readEvent());
+      }
+    }
+    aggregator.resolveQueryIds();
+  }
+
+  static void report(JdbcAggregator aggregator, String format, int top, Writer out) throws IOException {
+    var report = new Report(aggregator.getStatistics(), top);
+    if (format.equals("json")) {
+      report.writeJson(out);
+    } else {
+      report.writeText(out);
+    }
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.util.List;
+
+/**
+ * Live statistics of the JDBC calls and operations of the JVM.
+ *
+ * @see JdbcStatisticsStream
+ */
+public interface JdbcStatisticsMXBean {
+
+  /**
+   * The statistics of all statements and operations since the start or the
+   * last reset.
+   *
+   * @return the statistics sorted by descending total time
+   */
+  List<StatementStatistics> getStatements();
+
+  /**
+   * The statistics of the statements and operations with the highest total
+   * time since the start or the last reset.
+   *
+   * @param n the maximum number of statistics to return
+   * @return the statistics sorted by descending total time
+   */
+  List<StatementStatistics> topStatements(int n);
+
+  /**
+   * Discards all statistics.
+   */
+  void reset();
+
+}
@@ -0,0 +1,140 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Aggregates the JDBC events of the current JVM in a
+ * {@link RecordingStream} and exposes them as a platform MBean.
+ * <p>
+ * Enabling the events has the same effect as starting a recording, the
+ * connections obtained while the stream is running are instrumented.
+ *
+ * <pre><code>
+ * try (var statistics = JdbcStatisticsStream.start()) {
+ *   // ...
+ * }
+ * </code></pre>
+ */
+public final class JdbcStatisticsStream implements JdbcStatisticsMXBean, AutoCloseable {
+
+  /**
+   * The name under which the MBean is registered.
+   */
+  public static final String OBJECT_NAME = "com.github.marschall.jfr.jdbc:type=JdbcStatistics";
+
+  private final RecordingStream stream;
+
+  private final JdbcAggregator aggregator;
+
+  private final ObjectName objectName;
+
+  private JdbcStatisticsStream(RecordingStream stream, ObjectName objectName, boolean byFingerprint) {
+    this.stream = stream;
+    this.objectName = objectName;
+    this.aggregator = new JdbcAggregator(JdbcAggregator.DEFAULT_MAX_STATEMENTS, byFingerprint);
+  }
+
+  /**
+   * Starts aggregating the JDBC events by fingerprint and registers the
+   * MBean under {@value #OBJECT_NAME}.
+   *
+   * @return the running stream, to be closed
+   * @throws JMException if the MBean can not be registered, eg. because
+   *                     an other stream is running
+   */
+  public static JdbcStatisticsStream start() throws JMException {
+    return start(true);
+  }
+
+  /**
+   * Starts aggregating the JDBC events and registers the MBean under
+   * {@value #OBJECT_NAME}.
+   *
+   * @param byFingerprint whether to aggregate by fingerprint instead of
+   *                      query string, aggregating by query string can
+   *                      result in an unbounded number of statements
+   * @return the running stream, to be closed
+   * @throws JMException if the MBean can not be registered, eg. because
+   *                     an other stream is running
+   */
+  public static JdbcStatisticsStream start(boolean byFingerprint) throws JMException {
+    var stream = new RecordingStream();
+    try {
+      stream.enable(JdbcAggregator.CALL_EVENT).withThreshold(Duration.ZERO).withoutStackTrace();
+      stream.enable(JdbcAggregator.OPERATION_EVENT).withThreshold(Duration.ZERO).withoutStackTrace();
+      // not aggregated, replaces the operation events of the individual ResultSet.next() calls
+      stream.enable(JdbcAggregator.FETCH_EVENT).withoutStackTrace();
+      stream.setReuse(true);
+      stream.setOrdered(false);
+
+      var statistics = new JdbcStatisticsStream(stream, new ObjectName(OBJECT_NAME), byFingerprint);
+      stream.onEvent(JdbcAggregator.CALL_EVENT, statistics::accept);
+      stream.onEvent(JdbcAggregator.OPERATION_EVENT, statistics::accept);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, statistics.objectName);
+      stream.startAsync();
+      return statistics;
+    } catch (JMException | RuntimeException e) {
+      stream.close();
+      throw e;
+    }
+  }
+
+  private void accept(RecordedEvent event) {
+    synchronized (this.aggregator) {
+      this.aggregator.accept(event);
+    }
+  }
+
+  @Override
+  public List<StatementStatistics> getStatements() {
+    synchronized (this.aggregator) {
+      return this.aggregator.getStatistics();
+    }
+  }
+
+  @Override
+  public List<StatementStatistics> topStatements(int n) {
+    List<StatementStatistics> statements = this.getStatements();
+    return statements.subList(0, Math.min(Math.max(n, 0), statements.size()));
+  }
+
+  void render(OpenMetricsRenderer renderer) {
+    synchronized (this.aggregator) {
+      renderer.render(this.aggregator.getAggregates());
+    }
+  }
+
+  @Override
+  public void reset() {
+    synchronized (this.aggregator) {
+      this.aggregator.reset();
+    }
+  }
+
+  /**
+   * Stops the stream and unregisters the MBean.
+   */
+  @Override
+  public void close() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      if (server.isRegistered(this.objectName)) {
+        server.unregisterMBean(this.objectName);
+      }
+    } catch (JMException e) {
+      // already unregistered
+    } finally {
+      this.stream.close();
+    }
+  }
+
+}
@@ -0,0 +1,216 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Renders aggregates in the OpenMetrics text format.
+ * <p>
+ * The text and byte buffers are reused between scrapes, after the first
+ * scrape rendering only allocates when the output grows. Not thread safe.
+ */
+final class OpenMetricsRenderer {
+
+  static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+  /**
+   * The upper bounds of the exported histogram buckets in nanoseconds.
+   */
+  private static final long[] BUCKET_BOUNDS = {
+    100_000L, 500_000L,
+    1_000_000L, 5_000_000L,
+    10_000_000L, 50_000_000L,
+    100_000_000L, 500_000_000L,
+    1_000_000_000L, 5_000_000_000L,
+    10_000_000_000L
+  };
+
+  private static final String[] BUCKET_LABELS = {
+    "0.0001", "0.0005",
+    "0.001", "0.005",
+    "0.01", "0.05",
+    "0.1", "0.5",
+    "1.0", "5.0",
+    "10.0"
+  };
+
+  private static final String CONNECTION_ACQUISITION = "DataSource.getConnection";
+
+  private final StringBuilder text;
+
+  private final CharsetEncoder encoder;
+
+  private ByteBuffer bytes;
+
+  // cumulative counts of the buckets of the histogram being rendered
+  private final long[] bucketCounts;
+
+  OpenMetricsRenderer() {
+    this.bucketCounts = new long[BUCKET_BOUNDS.length];
+    this.text = new StringBuilder(16 * 1024);
+    this.encoder = StandardCharsets.UTF_8.newEncoder();
+    this.bytes = ByteBuffer.allocate(16 * 1024);
+  }
+
+  /**
+   * Renders the aggregates, the result is available from {@link #bytes()}.
+   *
+   * @param aggregates the aggregates to render
+   */
+  void render(Collection<StatementAggregate> aggregates) {
+    var text = this.text;
+    text.setLength(0);
+
+    text.append("# TYPE jdbc_call_duration_seconds histogram\n");
+    text.append("# UNIT jdbc_call_duration_seconds seconds\n");
+    text.append("# HELP jdbc_call_duration_seconds The duration of JDBC calls from execution until the result set is closed.\n");
+    for (StatementAggregate aggregate : aggregates) {
+      if (aggregate.key.kind.equals("call")) {
+        this.histogram("jdbc_call_duration_seconds", aggregate, true);
+      }
+    }
+    text.append("# TYPE jdbc_call_rows counter\n");
+    text.append("# HELP jdbc_call_rows The number of rows returned or updated by JDBC calls.\n");
+    for (StatementAggregate aggregate : aggregates) {
+      if (aggregate.key.kind.equals("call")) {
+        text.append("jdbc_call_rows_total");
+        this.labels(aggregate, true, null);
+        text.append(' ').append(aggregate.rowCount).append('\n');
+      }
+    }
+    text.append("# TYPE jdbc_call_errors counter\n");
+    text.append("# HELP jdbc_call_errors The number of JDBC calls with an execution that threw an exception.\n");
+    for (StatementAggregate aggregate : aggregates) {
+      if (aggregate.key.kind.equals("call")) {
+        text.append("jdbc_call_errors_total");
+        this.labels(aggregate, true, null);
+        text.append(' ').append(aggregate.errorCount).append('\n');
+      }
+    }
+    text.append("# TYPE jdbc_operation_duration_seconds histogram\n");
+    text.append("# UNIT jdbc_operation_duration_seconds seconds\n");
+    text.append("# HELP jdbc_operation_duration_seconds The duration of JDBC operations.\n");
+    for (StatementAggregate aggregate : aggregates) {
+      if (aggregate.key.kind.equals("operation")) {
+        this.histogram("jdbc_operation_duration_seconds", aggregate, true);
+      }
+    }
+    text.append("# TYPE jdbc_connection_acquisition_duration_seconds histogram\n");
+    text.append("# UNIT jdbc_connection_acquisition_duration_seconds seconds\n");
+    text.append("# HELP jdbc_connection_acquisition_duration_seconds The time spent in JfrDataSource.getConnection.\n");
+    for (StatementAggregate aggregate : aggregates) {
+      if (aggregate.key.kind.equals("operation") && CONNECTION_ACQUISITION.equals(aggregate.key.operation)) {
+        this.histogram("jdbc_connection_acquisition_duration_seconds", aggregate, false);
+      }
+    }
+    text.append("# EOF\n");
+
+    this.encode();
+  }
+
+  private void histogram(String name, StatementAggregate aggregate, boolean withLabels) {
+    var text = this.text;
+    var bucketCounts = this.bucketCounts;
+    aggregate.histogram.countAtOrBelow(BUCKET_BOUNDS, bucketCounts);
+    for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+      text.append(name).append("_bucket");
+      this.labels(aggregate, withLabels, BUCKET_LABELS[i]);
+      text.append(' ').append(bucketCounts[i]).append('\n');
+    }
+    text.append(name).append("_bucket");
+    this.labels(aggregate, withLabels, "+Inf");
+    text.append(' ').append(aggregate.count).append('\n');
+    text.append(name).append("_count");
+    this.labels(aggregate, withLabels, null);
+    text.append(' ').append(aggregate.count).append('\n');
+    text.append(name).append("_sum");
+    this.labels(aggregate, withLabels, null);
+    text.append(' ').append(aggregate.totalTime / 1_000_000_000.0d).append('\n');
+  }
+
+  private void labels(StatementAggregate aggregate, boolean withLabels, String le) {
+    var text = this.text;
+    if (!withLabels && le == null) {
+      return;
+    }
+    text.append('{');
+    boolean first = true;
+    if (withLabels) {
+      if (aggregate.key.operation != null) {
+        text.append("operation=\"");
+        this.escape(aggregate.key.operation);
+        text.append('"');
+        first = false;
+      }
+      if (!first) {
+        text.append(',');
+      }
+      text.append("query=\"");
+      if (aggregate.key.query != null) {
+        this.escape(aggregate.key.query);
+      }
+      text.append('"');
+      first = false;
+    }
+    if (le != null) {
+      if (!first) {
+        text.append(',');
+      }
+      text.append("le=\"").append(le).append('"');
+    }
+    text.append('}');
+  }
+
+  private void escape(String value) {
+    var text = this.text;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\':
+          text.append("\\\\");
+          break;
+        case '"':
+          text.append("\\\"");
+          break;
+        case '\n':
+          text.append("\\n");
+          break;
+        default:
+          text.append(c);
+      }
+    }
+  }
+
+  private void encode() {
+    var encoder = this.encoder;
+    while (true) {
+      encoder.reset();
+      this.bytes.clear();
+      // CharBuffer.wrap of a StringBuilder does not copy
+      CoderResult result = encoder.encode(CharBuffer.wrap(this.text), this.bytes, true);
+      if (!result.isOverflow()) {
+        result = encoder.flush(this.bytes);
+      }
+      if (!result.isOverflow()) {
+        break;
+      }
+      this.bytes = ByteBuffer.allocate(this.bytes.capacity() * 2);
+    }
+    this.bytes.flip();
+  }
+
+  /**
+   * The rendered bytes, valid until the next call to
+   * {@link #render(Collection)}.
+   *
+   * @return the rendered bytes, backed by an array starting at offset 0
+   */
+  ByteBuffer bytes() {
+    return this.bytes;
+  }
+
+}
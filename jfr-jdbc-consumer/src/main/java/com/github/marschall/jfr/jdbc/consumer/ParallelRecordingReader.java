@@ -0,0 +1,204 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reads the chunks of a recording in parallel.
+ * <p>
+ * A recording is a sequence of self contained chunks. The chunk headers
+ * are read from memory mapped regions of the file to split it at the chunk
+ * boundaries. Since {@link jdk.jfr.consumer.RecordingFile} can only read
+ * files every chunk is copied to a temporary file with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * and parsed on a {@link ForkJoinPool}. This needs as much temporary disk
+ * space as the chunks being parsed at the same time, at most the size of
+ * the recording. A recording with a single chunk is read without a copy.
+ * <p>
+ * The chunks are aggregated without a maximum number of distinct
+ * statements and merged in file order, the maximum is only applied after
+ * the merge with {@link JdbcAggregator#limit(int)}. The result is
+ * therefore identical to reading the file sequentially.
+ */
+final class ParallelRecordingReader {
+
+  private static final int MAGIC = 0x464c5200; // "FLR\0"
+
+  private static final int HEADER_SIZE = 16;
+
+  private static final int CHUNK_SIZE_OFFSET = 8;
+
+  private ParallelRecordingReader() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Reads all the JDBC events of a recording in parallel.
+   *
+   * @param file the recording to read
+   * @param maxStatements the maximum number of distinct statements
+   * @param byFingerprint whether to aggregate by fingerprint
+   * @param pool the pool to parse the chunks in
+   * @return the aggregated events
+   * @throws IOException if the recording can not be read
+   */
+  static JdbcAggregator read(Path file, int maxStatements, boolean byFingerprint, ForkJoinPool pool) throws IOException {
+    try {
+      return pool.invoke(ForkJoinTask.adapt(() -> readInPool(file, byFingerprint))).limit(maxStatements);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Reads all the JDBC events of a recording in parallel from within a
+   * {@link ForkJoinTask}.
+   *
+   * @param file the recording to read
+   * @param byFingerprint whether to aggregate by fingerprint
+   * @return the aggregated events, {@link JdbcAggregator#UNLIMITED}
+   * @throws UncheckedIOException if the recording can not be read
+   */
+  static JdbcAggregator readInPool(Path file, boolean byFingerprint) {
+    List<Chunk> chunks;
+    try {
+      chunks = chunks(file);
+      if (chunks.size() <= 1) {
+        var aggregator = new JdbcAggregator(JdbcAggregator.UNLIMITED, byFingerprint);
+        if (!chunks.isEmpty()) {
+          // no need to copy
+          JdbcAnalyzer.read(file, aggregator);
+        }
+        return aggregator;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new ChunkTask(file, chunks, 0, chunks.size(), byFingerprint).invoke();
+  }
+
+  /**
+   * Splits a recording into chunks.
+   *
+   * @param file the recording
+   * @return the chunks in file order
+   * @throws IOException if the file can not be read or is not a recording
+   */
+  static List<Chunk> chunks(Path file) throws IOException {
+    List<Chunk> chunks = new ArrayList<>();
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      long position = 0L;
+      while (position < fileSize) {
+        if (fileSize - position < HEADER_SIZE) {
+          throw new IOException("truncated chunk header at " + position + " in " + file);
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, position, HEADER_SIZE)
+                .order(ByteOrder.BIG_ENDIAN);
+        if (header.getInt(0) != MAGIC) {
+          throw new IOException("no chunk at " + position + " in " + file);
+        }
+        long size = header.getLong(CHUNK_SIZE_OFFSET);
+        if ((size < HEADER_SIZE) || (size > fileSize - position)) {
+          // eg. the last chunk of a recording that is still being written
+          throw new IOException("invalid chunk size " + size + " at " + position + " in " + file);
+        }
+        chunks.add(new Chunk(position, size));
+        position += size;
+      }
+    }
+    return chunks;
+  }
+
+  static JdbcAggregator readChunk(Path file, Chunk chunk, boolean byFingerprint) throws IOException {
+    Path chunkFile = Files.createTempFile("jfr-jdbc-chunk", ".jfr");
+    try {
+      try (var source = FileChannel.open(file, StandardOpenOption.READ);
+           var target = FileChannel.open(chunkFile, StandardOpenOption.WRITE)) {
+        long transferred = 0L;
+        while (transferred < chunk.size) {
+          transferred += source.transferTo(chunk.position + transferred, chunk.size - transferred, target);
+        }
+      }
+      var aggregator = new JdbcAggregator(JdbcAggregator.UNLIMITED, byFingerprint);
+      JdbcAnalyzer.read(chunkFile, aggregator);
+      return aggregator;
+    } finally {
+      Files.delete(chunkFile);
+    }
+  }
+
+  /**
+   * A chunk of a recording.
+   */
+  static final class Chunk {
+
+    final long position;
+
+    final long size;
+
+    Chunk(long position, long size) {
+      this.position = position;
+      this.size = size;
+    }
+
+  }
+
+  /**
+   * Parses a range of chunks by splitting it in halves.
+   */
+  static final class ChunkTask extends RecursiveTask<JdbcAggregator> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Path file;
+
+    private final List<Chunk> chunks;
+
+    private final int from;
+
+    private final int to;
+
+    private final boolean byFingerprint;
+
+    ChunkTask(Path file, List<Chunk> chunks, int from, int to, boolean byFingerprint) {
+      this.file = file;
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+      this.byFingerprint = byFingerprint;
+    }
+
+    @Override
+    protected JdbcAggregator compute() {
+      if (this.to - this.from == 1) {
+        try {
+          return readChunk(this.file, this.chunks.get(this.from), this.byFingerprint);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      int middle = (this.from + this.to) >>> 1;
+      var left = new ChunkTask(this.file, this.chunks, this.from, middle, this.byFingerprint);
+      var right = new ChunkTask(this.file, this.chunks, middle, this.to, this.byFingerprint);
+      right.fork();
+      // merged in file order so that the order of the statements is the same as when reading sequentially
+      JdbcAggregator result = left.compute();
+      result.merge(right.join());
+      return result;
+    }
+
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the statistics of a {@link JdbcStatisticsStream} in the
+ * OpenMetrics text format on {@code /metrics} using the HTTP server of the
+ * JDK.
+ * <p>
+ * Requests are handled on a single thread that reuses the same buffers for
+ * every scrape.
+ *
+ * <pre><code>
+ * try (var statistics = JdbcStatisticsStream.start(true);
+ *      var exporter = PrometheusExporter.start(statistics, new InetSocketAddress(9404))) {
+ *   // ...
+ * }
+ * </code></pre>
+ */
+public final class PrometheusExporter implements AutoCloseable {
+
+  private final HttpServer server;
+
+  private final JdbcStatisticsStream statistics;
+
+  private final OpenMetricsRenderer renderer;
+
+  private PrometheusExporter(HttpServer server, JdbcStatisticsStream statistics) {
+    this.server = server;
+    this.statistics = statistics;
+    this.renderer = new OpenMetricsRenderer();
+  }
+
+  /**
+   * Starts serving the statistics.
+   *
+   * @param statistics the statistics to serve, has to be closed separately
+   * @param address the address to listen on, port 0 for an ephemeral port
+   * @return the running exporter, to be closed
+   * @throws IOException if the server can not be started
+   */
+  public static PrometheusExporter start(JdbcStatisticsStream statistics, InetSocketAddress address) throws IOException {
+    var server = HttpServer.create(address, 0);
+    var exporter = new PrometheusExporter(server, statistics);
+    server.createContext("/metrics", exporter::handle);
+    // null uses the dispatcher thread, keeps the renderer single threaded
+    server.setExecutor(null);
+    server.start();
+    return exporter;
+  }
+
+  /**
+   * The address the server listens on.
+   *
+   * @return the address, with the actual port
+   */
+  public InetSocketAddress getAddress() {
+    return this.server.getAddress();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+        exchange.sendResponseHeaders(405, -1L);
+        return;
+      }
+      this.statistics.render(this.renderer);
+      var bytes = this.renderer.bytes();
+      exchange.getResponseHeaders().set("Content-Type", OpenMetricsRenderer.CONTENT_TYPE);
+      if (exchange.getRequestMethod().equals("HEAD")) {
+        exchange.sendResponseHeaders(200, -1L);
+        return;
+      }
+      exchange.sendResponseHeaders(200, bytes.remaining());
+      exchange.getResponseBody().write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    }
+  }
+
+  /**
+   * Stops the server.
+   */
+  @Override
+  public void close() {
+    this.server.stop(0);
+  }
+
+}
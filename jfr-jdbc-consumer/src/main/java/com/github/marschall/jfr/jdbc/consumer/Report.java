@@ -0,0 +1,142 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The top statements by total time, count, 99th percentile and rows,
+ * written as text or JSON.
+ */
+final class Report {
+
+  private static final String[] TITLES = {"total time", "count", "p99", "rows"};
+
+  private static final String[] JSON_NAMES = {"topByTotalTime", "topByCount", "topByP99", "topByRows"};
+
+  private static final List<Comparator<StatementStatistics>> ORDERS = List.of(
+          JdbcAggregator.BY_TOTAL_TIME,
+          Comparator.comparingLong(StatementStatistics::getCount).reversed(),
+          Comparator.comparingLong(StatementStatistics::getP99).reversed(),
+          Comparator.comparingLong(StatementStatistics::getRowCount).reversed());
+
+  private final List<StatementStatistics> statistics;
+
+  private final int top;
+
+  Report(List<StatementStatistics> statistics, int top) {
+    this.statistics = statistics;
+    this.top = top;
+  }
+
+  private List<StatementStatistics> top(Comparator<StatementStatistics> order) {
+    var sorted = new ArrayList<>(this.statistics);
+    sorted.sort(order);
+    return sorted.subList(0, Math.min(this.top, sorted.size()));
+  }
+
+  void writeText(Writer out) throws IOException {
+    out.write(this.statistics.size() + " distinct statements\n");
+    for (int i = 0; i < ORDERS.size(); i++) {
+      out.write("\nTop " + this.top + " by " + TITLES[i] + "\n");
+      out.write(String.format(Locale.ROOT, "%10s %12s %10s %10s %10s  %s%n", "count", "total ms", "p99 ms", "max ms", "rows", "statement"));
+      for (StatementStatistics statement : this.top(ORDERS.get(i))) {
+        out.write(String.format(Locale.ROOT, "%10d %12.3f %10.3f %10.3f %10d  %s%n",
+                statement.getCount(), millis(statement.getTotalTime()), millis(statement.getP99()),
+                millis(statement.getMaxTime()), statement.getRowCount(), label(statement)));
+      }
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0d;
+  }
+
+  private static String label(StatementStatistics statement) {
+    String query = statement.getQuery();
+    if (query != null) {
+      // keep one statement per line
+      query = query.replaceAll("\\s+", " ");
+    }
+    if (statement.getOperation() == null) {
+      return query;
+    }
+    if (query == null) {
+      return statement.getOperation();
+    }
+    return statement.getOperation() + ' ' + query;
+  }
+
+  void writeJson(Writer out) throws IOException {
+    out.write("{\n  \"statements\": " + this.statistics.size());
+    for (int i = 0; i < ORDERS.size(); i++) {
+      out.write(",\n  \"" + JSON_NAMES[i] + "\": [");
+      List<StatementStatistics> top = this.top(ORDERS.get(i));
+      for (int j = 0; j < top.size(); j++) {
+        if (j > 0) {
+          out.write(',');
+        }
+        out.write("\n    ");
+        writeJson(top.get(j), out);
+      }
+      out.write(top.isEmpty() ? "]" : "\n  ]");
+    }
+    out.write("\n}\n");
+  }
+
+  private static void writeJson(StatementStatistics statement, Writer out) throws IOException {
+    out.write("{\"kind\": ");
+    writeJsonString(statement.getKind(), out);
+    out.write(", \"operation\": ");
+    writeJsonString(statement.getOperation(), out);
+    out.write(", \"query\": ");
+    writeJsonString(statement.getQuery(), out);
+    out.write(", \"count\": " + statement.getCount());
+    out.write(", \"totalTime\": " + statement.getTotalTime());
+    out.write(", \"maxTime\": " + statement.getMaxTime());
+    out.write(", \"p50\": " + statement.getP50());
+    out.write(", \"p90\": " + statement.getP90());
+    out.write(", \"p99\": " + statement.getP99());
+    out.write(", \"rowCount\": " + statement.getRowCount());
+    out.write('}');
+  }
+
+  static void writeJsonString(String s, Writer out) throws IOException {
+    if (s == null) {
+      out.write("null");
+      return;
+    }
+    out.write('"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"':
+          out.write("\\\"");
+          break;
+        case '\\':
+          out.write("\\\\");
+          break;
+        case '\n':
+          out.write("\\n");
+          break;
+        case '\r':
+          out.write("\\r");
+          break;
+        case '\t':
+          out.write("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            out.write(String.format("\\u%04x", (int) c));
+          } else {
+            out.write(c);
+          }
+      }
+    }
+    out.write('"');
+  }
+
+}
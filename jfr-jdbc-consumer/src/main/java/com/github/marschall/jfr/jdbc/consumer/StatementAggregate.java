@@ -0,0 +1,102 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.util.Objects;
+
+/**
+ * The aggregated events of a statement or operation.
+ * <p>
+ * Not thread safe.
+ */
+final class StatementAggregate {
+
+  final Key key;
+
+  long count;
+
+  long totalTime;
+
+  long rowCount;
+
+  long errorCount;
+
+  final Histogram histogram;
+
+  StatementAggregate(Key key) {
+    this.key = key;
+    this.histogram = new Histogram();
+  }
+
+  void record(long duration, long rows, boolean failed) {
+    this.count += 1L;
+    this.totalTime += duration;
+    this.rowCount += rows;
+    if (failed) {
+      this.errorCount += 1L;
+    }
+    this.histogram.record(duration);
+  }
+
+  void merge(StatementAggregate other) {
+    this.count += other.count;
+    this.totalTime += other.totalTime;
+    this.rowCount += other.rowCount;
+    this.errorCount += other.errorCount;
+    this.histogram.merge(other.histogram);
+  }
+
+  StatementStatistics toStatistics() {
+    var histogram = this.histogram;
+    return new StatementStatistics(this.key.kind, this.key.operation, this.key.query,
+            this.count, this.totalTime, histogram.getMaxValue(),
+            histogram.percentile(0.5d), histogram.percentile(0.9d), histogram.percentile(0.99d),
+            this.rowCount);
+  }
+
+  /**
+   * Identifies an aggregate.
+   */
+  static final class Key {
+
+    /**
+     * {@code "call"}, {@code "operation"} or {@code "savepoint"}.
+     */
+    final String kind;
+
+    /**
+     * The operation, eg. {@code "Connection.commit"}, {@code null} for calls.
+     */
+    final String operation;
+
+    /**
+     * The SQL query string, {@code null} if the event has none.
+     */
+    final String query;
+
+    Key(String kind, String operation, String query) {
+      this.kind = kind;
+      this.operation = operation;
+      this.query = query;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      var other = (Key) obj;
+      return this.kind.equals(other.kind)
+              && Objects.equals(this.operation, other.operation)
+              && Objects.equals(this.query, other.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.kind, this.operation, this.query);
+    }
+
+  }
+
+}
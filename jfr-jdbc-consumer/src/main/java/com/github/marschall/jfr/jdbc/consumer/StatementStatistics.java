@@ -0,0 +1,132 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.util.Objects;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * The statistics of a statement or operation, all times are in nanoseconds.
+ */
+public final class StatementStatistics {
+
+  private final String kind;
+  private final String operation;
+  private final String query;
+  private final long count;
+  private final long totalTime;
+  private final long maxTime;
+  private final long p50;
+  private final long p90;
+  private final long p99;
+  private final long rowCount;
+
+  @ConstructorParameters({"kind", "operation", "query", "count", "totalTime", "maxTime", "p50", "p90", "p99", "rowCount"})
+  public StatementStatistics(String kind, String operation, String query,
+          long count, long totalTime, long maxTime,
+          long p50, long p90, long p99, long rowCount) {
+    this.kind = kind;
+    this.operation = operation;
+    this.query = query;
+    this.count = count;
+    this.totalTime = totalTime;
+    this.maxTime = maxTime;
+    this.p50 = p50;
+    this.p90 = p90;
+    this.p99 = p99;
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * The kind of event that was aggregated.
+   *
+   * @return {@code "call"}, {@code "operation"} or {@code "savepoint"}
+   */
+  public String getKind() {
+    return this.kind;
+  }
+
+  /**
+   * The operation, eg. {@code "Connection.commit"}.
+   *
+   * @return the operation, {@code null} for calls
+   */
+  public String getOperation() {
+    return this.operation;
+  }
+
+  /**
+   * The SQL query string, the fingerprint or the query id if the events
+   * contain no query string.
+   *
+   * @return the query, {@code null} for operations without a query
+   */
+  public String getQuery() {
+    return this.query;
+  }
+
+  public long getCount() {
+    return this.count;
+  }
+
+  public long getTotalTime() {
+    return this.totalTime;
+  }
+
+  public long getMaxTime() {
+    return this.maxTime;
+  }
+
+  public long getP50() {
+    return this.p50;
+  }
+
+  public long getP90() {
+    return this.p90;
+  }
+
+  public long getP99() {
+    return this.p99;
+  }
+
+  /**
+   * The number of rows returned or updated, only for calls.
+   *
+   * @return the number of rows
+   */
+  public long getRowCount() {
+    return this.rowCount;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof StatementStatistics)) {
+      return false;
+    }
+    var other = (StatementStatistics) obj;
+    return this.kind.equals(other.kind)
+            && Objects.equals(this.operation, other.operation)
+            && Objects.equals(this.query, other.query)
+            && this.count == other.count
+            && this.totalTime == other.totalTime
+            && this.maxTime == other.maxTime
+            && this.p50 == other.p50
+            && this.p90 == other.p90
+            && this.p99 == other.p99
+            && this.rowCount == other.rowCount;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.kind, this.operation, this.query, this.count, this.totalTime);
+  }
+
+  @Override
+  public String toString() {
+    return this.kind + ' ' + (this.operation != null ? this.operation + ' ' : "") + this.query
+            + " count=" + this.count + " totalTime=" + this.totalTime;
+  }
+
+}
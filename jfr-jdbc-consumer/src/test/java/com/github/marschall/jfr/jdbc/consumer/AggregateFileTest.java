@@ -0,0 +1,79 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AggregateFileTest {
+
+  @TempDir
+  Path temporaryFolder;
+
+  @Test
+  void mergeHierarchically() throws Exception {
+    Path first = this.temporaryFolder.resolve("first.jfr");
+    Path second = this.temporaryFolder.resolve("second.jfr");
+    Path third = this.temporaryFolder.resolve("third.jfr");
+    TestRecordings.record(first, 5, 1);
+    TestRecordings.record(second, 7, 2);
+    TestRecordings.record(third, 3, 1);
+
+    var expected = new JdbcAggregator();
+    for (Path recording : List.of(first, second, third)) {
+      JdbcAnalyzer.read(recording, expected);
+    }
+
+    // one aggregate per JVM
+    Path firstAggregate = this.aggregate(first, "first.jjag");
+    Path secondAggregate = this.aggregate(second, "second.jjag");
+    Path thirdAggregate = this.aggregate(third, "third.jjag");
+    assertTrue(AggregateFile.isAggregateFile(firstAggregate));
+    assertFalse(AggregateFile.isAggregateFile(first));
+
+    // reduce two of them, then the result with the third
+    var partial = new JdbcAggregator();
+    InputReader.read(firstAggregate, partial);
+    InputReader.read(secondAggregate, partial);
+    Path partialAggregate = this.temporaryFolder.resolve("partial.jjag");
+    AggregateFile.write(partial, partialAggregate);
+
+    var pool = new ForkJoinPool(2);
+    JdbcAggregator merged;
+    try {
+      merged = InputReader.read(List.of(partialAggregate, thirdAggregate), JdbcAggregator.DEFAULT_MAX_STATEMENTS, false, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    assertEquals(new HashSet<>(expected.getStatistics()), new HashSet<>(merged.getStatistics()));
+  }
+
+  @Test
+  void differentGrouping() throws Exception {
+    Path recording = this.temporaryFolder.resolve("recording.jfr");
+    TestRecordings.record(recording, 1, 1);
+    Path aggregate = this.aggregate(recording, "recording.jjag");
+
+    var byFingerprint = new JdbcAggregator(JdbcAggregator.DEFAULT_MAX_STATEMENTS, true);
+    assertThrows(IOException.class, () -> AggregateFile.read(aggregate, byFingerprint));
+  }
+
+  private Path aggregate(Path recording, String fileName) throws IOException {
+    var aggregator = new JdbcAggregator();
+    JdbcAnalyzer.read(recording, aggregator);
+    Path aggregate = this.temporaryFolder.resolve(fileName);
+    AggregateFile.write(aggregator, aggregate);
+    return aggregate;
+  }
+
+}
@@ -0,0 +1,104 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JdbcAnalyzerTest {
+
+  @TempDir
+  Path temporaryFolder;
+
+  @Test
+  void analyze() throws Exception {
+    Path file = this.temporaryFolder.resolve("recording.jfr");
+    TestRecordings.record(file, 5, 1);
+
+    var aggregator = new JdbcAggregator();
+    JdbcAnalyzer.read(file, aggregator);
+    var query = aggregator.getStatistics().stream()
+            .filter(statement -> "call".equals(statement.getKind()) && TestRecordings.QUERY.equals(statement.getQuery()))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(5L, query.getCount());
+    assertEquals(50L, query.getRowCount());
+    var savepoint = aggregator.getStatistics().stream()
+            .filter(statement -> "savepoint".equals(statement.getKind()) && "Savepoint.setSavepoint".equals(statement.getOperation()))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(1L, savepoint.getCount());
+
+    var text = new StringWriter();
+    JdbcAnalyzer.report(aggregator, "text", 3, text);
+    assertTrue(text.toString().contains("Top 3 by p99"));
+    assertTrue(text.toString().contains(TestRecordings.UPDATE));
+
+    var json = new StringWriter();
+    JdbcAnalyzer.report(aggregator, "json", 3, json);
+    assertTrue(json.toString().contains("\"topByRows\": ["));
+    assertTrue(json.toString().contains("{\"kind\": \"call\", \"operation\": null, \"query\": \"" + TestRecordings.QUERY + "\", \"count\": 5,"));
+  }
+
+  @Test
+  void queryText() throws Exception {
+    Path file = this.temporaryFolder.resolve("recording.jfr");
+    TestRecordings.record(file, 5, 2, true);
+
+    var aggregator = new JdbcAggregator();
+    JdbcAnalyzer.read(file, aggregator);
+    var statistics = aggregator.getStatistics();
+    assertTrue(statistics.stream().noneMatch(statement -> statement.getQuery() != null && statement.getQuery().startsWith("queryId ")));
+    var query = statistics.stream()
+            .filter(statement -> "call".equals(statement.getKind()) && TestRecordings.QUERY.equals(statement.getQuery()))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(10L, query.getCount());
+
+    var pool = new ForkJoinPool(2);
+    JdbcAggregator parallel;
+    try {
+      parallel = ParallelRecordingReader.read(file, JdbcAggregator.DEFAULT_MAX_STATEMENTS, false, pool);
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(new HashSet<>(statistics), new HashSet<>(parallel.getStatistics()));
+  }
+
+  @Test
+  void maxStatements() throws Exception {
+    Path file = this.temporaryFolder.resolve("recording.jfr");
+    TestRecordings.record(file, 2, 1);
+
+    var bounded = new JdbcAggregator(1);
+    JdbcAnalyzer.read(file, bounded);
+    var unbounded = new JdbcAggregator();
+    JdbcAnalyzer.read(file, unbounded);
+
+    var statistics = bounded.getStatistics();
+    assertEquals(1L, statistics.stream()
+            .filter(statement -> !JdbcAggregator.OTHER.equals(statement.getQuery()))
+            .count());
+    assertEquals(totalCount(unbounded), totalCount(bounded));
+  }
+
+  private static long totalCount(JdbcAggregator aggregator) {
+    return aggregator.getStatistics().stream()
+            .mapToLong(StatementStatistics::getCount)
+            .sum();
+  }
+
+  @Test
+  void jsonString() throws Exception {
+    var out = new StringWriter();
+    Report.writeJsonString("a\"b\\c\nd\u0001", out);
+    assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", out.toString());
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import com.github.marschall.jfr.jdbc.JfrDataSource;
+
+class JdbcStatisticsStreamTest {
+
+  private static final String QUERY = "SELECT X FROM SYSTEM_RANGE(1, 10)";
+
+  private static final String FINGERPRINT = "SELECT X FROM SYSTEM_RANGE(?, ?)";
+
+  @Test
+  void liveStatistics() throws Exception {
+    var h2DataSource = new JdbcDataSource();
+    h2DataSource.setURL("jdbc:h2:mem:");
+    var dataSource = new JfrDataSource(h2DataSource);
+    var server = ManagementFactory.getPlatformMBeanServer();
+    var objectName = new ObjectName(JdbcStatisticsStream.OBJECT_NAME);
+
+    try (var statistics = JdbcStatisticsStream.start()) {
+      assertTrue(server.isRegistered(objectName));
+      for (int i = 0; i < 3; i++) {
+        try (var connection = dataSource.getConnection();
+             var preparedStatement = connection.prepareStatement(QUERY);
+             var resultSet = preparedStatement.executeQuery()) {
+          while (resultSet.next()) {
+            resultSet.getInt(1);
+          }
+        }
+      }
+
+      CompositeData call = null;
+      long deadline = System.nanoTime() + 30_000_000_000L;
+      while (call == null && System.nanoTime() < deadline) {
+        Thread.sleep(100L);
+        for (CompositeData statement : (CompositeData[]) server.getAttribute(objectName, "Statements")) {
+          if ("call".equals(statement.get("kind")) && FINGERPRINT.equals(statement.get("query"))
+                  && ((Long) statement.get("count")) == 3L) {
+            call = statement;
+          }
+        }
+      }
+      assertNotNull(call, "call statistics");
+      assertEquals(30L, call.get("rowCount"));
+      assertTrue((Long) call.get("totalTime") >= (Long) call.get("maxTime"));
+      assertTrue((Long) call.get("p99") <= (Long) call.get("maxTime"));
+      // the fetch event replaces the operation events of next()
+      assertTrue(statistics.getStatements().stream()
+              .noneMatch(statement -> "ResultSet.next".equals(statement.getOperation())));
+
+      server.invoke(objectName, "reset", new Object[0], new String[0]);
+      assertTrue(statistics.getStatements().stream()
+              .noneMatch(statement -> "call".equals(statement.getKind()) && FINGERPRINT.equals(statement.getQuery())));
+    }
+    assertFalse(server.isRegistered(objectName));
+  }
+
+}
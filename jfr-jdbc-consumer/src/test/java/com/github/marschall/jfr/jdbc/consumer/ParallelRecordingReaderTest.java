@@ -0,0 +1,73 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelRecordingReaderTest {
+
+  @TempDir
+  Path temporaryFolder;
+
+  @Test
+  void sameAsSequential() throws Exception {
+    Path file = this.temporaryFolder.resolve("recording.jfr");
+    TestRecordings.record(file, 20, 4);
+    assertTrue(ParallelRecordingReader.chunks(file).size() > 1, "multiple chunks");
+
+    var sequential = new JdbcAggregator();
+    JdbcAnalyzer.read(file, sequential);
+
+    var pool = new ForkJoinPool(4);
+    JdbcAggregator parallel;
+    try {
+      parallel = ParallelRecordingReader.read(file, JdbcAggregator.DEFAULT_MAX_STATEMENTS, false, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    var expected = sequential.getStatistics();
+    assertFalse(expected.isEmpty());
+    assertEquals(new HashSet<>(expected), new HashSet<>(parallel.getStatistics()));
+  }
+
+  @Test
+  void maxStatementsSameAsSequential() throws Exception {
+    Path file = this.temporaryFolder.resolve("recording.jfr");
+    TestRecordings.record(file, 20, 4);
+
+    int maxStatements = 3;
+    var sequential = new JdbcAggregator(maxStatements);
+    JdbcAnalyzer.read(file, sequential);
+
+    var pool = new ForkJoinPool(4);
+    JdbcAggregator parallel;
+    try {
+      parallel = ParallelRecordingReader.read(file, maxStatements, false, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    var expected = sequential.getStatistics();
+    assertTrue(expected.stream().anyMatch(statement -> JdbcAggregator.OTHER.equals(statement.getQuery())), "overflow");
+    assertEquals(new HashSet<>(expected), new HashSet<>(parallel.getStatistics()));
+  }
+
+  @Test
+  void notARecording() throws IOException {
+    Path file = this.temporaryFolder.resolve("recording.jfr");
+    Files.writeString(file, "not a recording, just some text");
+    assertThrows(IOException.class, () -> ParallelRecordingReader.chunks(file));
+  }
+
+}
@@ -0,0 +1,72 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import com.github.marschall.jfr.jdbc.JfrDataSource;
+
+class PrometheusExporterTest {
+
+  @Test
+  void scrape() throws Exception {
+    var h2DataSource = new JdbcDataSource();
+    h2DataSource.setURL("jdbc:h2:mem:");
+    var dataSource = new JfrDataSource(h2DataSource);
+
+    try (var statistics = JdbcStatisticsStream.start(true);
+         var exporter = PrometheusExporter.start(statistics, new InetSocketAddress("localhost", 0))) {
+      for (int i = 0; i < 3; i++) {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.createStatement();
+             var resultSet = statement.executeQuery("SELECT X FROM SYSTEM_RANGE(1, " + (i + 1) + ")")) {
+          while (resultSet.next()) {
+            resultSet.getInt(1);
+          }
+        }
+      }
+      try (var connection = dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        assertThrows(SQLException.class, () -> statement.executeQuery("SELECT X FROM missing_table WHERE X = 1"));
+      }
+
+      var client = HttpClient.newHttpClient();
+      var request = HttpRequest.newBuilder(URI.create("http://localhost:" + exporter.getAddress().getPort() + "/metrics")).build();
+      String expected = "jdbc_call_duration_seconds_count{query=\"SELECT X FROM SYSTEM_RANGE(?, ?)\"} 3\n";
+      String expectedError = "jdbc_call_errors_total{query=\"SELECT X FROM missing_table WHERE X = ?\"} 1\n";
+      HttpResponse<String> response = null;
+      long deadline = System.nanoTime() + 30_000_000_000L;
+      while (System.nanoTime() < deadline) {
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.body().contains(expected) && response.body().contains(expectedError)) {
+          break;
+        }
+        Thread.sleep(100L);
+      }
+
+      assertEquals(200, response.statusCode());
+      assertEquals(List.of(OpenMetricsRenderer.CONTENT_TYPE), response.headers().allValues("Content-Type"));
+      String body = response.body();
+      assertTrue(body.contains(expected), body);
+      assertTrue(body.contains("jdbc_call_rows_total{query=\"SELECT X FROM SYSTEM_RANGE(?, ?)\"} 6\n"), body);
+      assertTrue(body.contains("jdbc_call_duration_seconds_bucket{query=\"SELECT X FROM SYSTEM_RANGE(?, ?)\",le=\"10.0\"} 3\n"), body);
+      assertTrue(body.contains("jdbc_call_duration_seconds_bucket{query=\"SELECT X FROM SYSTEM_RANGE(?, ?)\",le=\"+Inf\"} 3\n"), body);
+      assertTrue(body.contains(expectedError), body);
+      assertTrue(body.contains("jdbc_call_errors_total{query=\"SELECT X FROM SYSTEM_RANGE(?, ?)\"} 0\n"), body);
+      assertTrue(body.contains("jdbc_connection_acquisition_duration_seconds_count 4\n"), body);
+      assertTrue(body.endsWith("# EOF\n"), body);
+    }
+  }
+
+}
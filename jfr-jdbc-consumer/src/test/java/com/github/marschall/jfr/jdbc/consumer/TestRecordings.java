@@ -0,0 +1,99 @@
+package com.github.marschall.jfr.jdbc.consumer;
+
+import java.nio.file.Path;
+import java.sql.Savepoint;
+import java.time.Duration;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+import com.github.marschall.jfr.jdbc.JfrDataSource;
+
+import jdk.jfr.Recording;
+
+/**
+ * Creates recordings with JDBC events.
+ */
+final class TestRecordings {
+
+  static final String QUERY = "SELECT X FROM SYSTEM_RANGE(1, 10)";
+
+  static final String UPDATE = "UPDATE test_table SET amount = amount + 1 WHERE id = ?";
+
+  private TestRecordings() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Records {@code iterations} executions of {@link #QUERY} and
+   * {@link #UPDATE} and a savepoint per chunk.
+   *
+   * @param file the file to write the recording to
+   * @param iterations the number of times each statement is executed
+   * @param chunks the number of chunks to write, at least one
+   */
+  static void record(Path file, int iterations, int chunks) throws Exception {
+    record(file, iterations, chunks, false);
+  }
+
+  /**
+   * Records {@code iterations} executions of {@link #QUERY} and
+   * {@link #UPDATE} and a savepoint per chunk.
+   *
+   * @param file the file to write the recording to
+   * @param iterations the number of times each statement is executed
+   * @param chunks the number of chunks to write, at least one
+   * @param queryText whether to record the query strings as
+   *                  {@code JdbcQueryTextEvent}s instead of in the events
+   */
+  static void record(Path file, int iterations, int chunks, boolean queryText) throws Exception {
+    var h2DataSource = new JdbcDataSource();
+    h2DataSource.setURL("jdbc:h2:mem:");
+    var dataSource = new JfrDataSource(h2DataSource);
+    try (var recording = new Recording()) {
+      recording.enable(JdbcAggregator.CALL_EVENT).withThreshold(Duration.ZERO);
+      recording.enable(JdbcAggregator.OPERATION_EVENT).withThreshold(Duration.ZERO);
+      recording.enable(JdbcAggregator.SAVEPOINT_EVENT).withThreshold(Duration.ZERO);
+      if (queryText) {
+        recording.enable(JdbcAggregator.QUERY_TEXT_EVENT);
+      }
+      recording.start();
+      try (var connection = dataSource.getConnection()) {
+        try (var statement = connection.createStatement()) {
+          statement.execute("CREATE TABLE test_table(id INT PRIMARY KEY, amount INT)");
+          statement.execute("INSERT INTO test_table(id, amount) SELECT X, 0 FROM SYSTEM_RANGE(1, 10)");
+        }
+        for (int chunk = 0; chunk < chunks; chunk++) {
+          if (chunk > 0) {
+            // starting an other recording rotates the chunk
+            try (var rotation = new Recording()) {
+              if (queryText) {
+                rotation.enable(JdbcAggregator.QUERY_TEXT_EVENT);
+              }
+              rotation.start();
+            }
+          }
+          connection.setAutoCommit(false);
+          Savepoint savepoint = connection.setSavepoint();
+          connection.releaseSavepoint(savepoint);
+          connection.commit();
+          connection.setAutoCommit(true);
+          for (int i = 0; i < iterations; i++) {
+            try (var preparedStatement = connection.prepareStatement(QUERY);
+                 var resultSet = preparedStatement.executeQuery()) {
+              while (resultSet.next()) {
+                resultSet.getInt(1);
+              }
+            }
+            try (var preparedStatement = connection.prepareStatement(UPDATE)) {
+              preparedStatement.setInt(1, (i % 10) + 1);
+              preparedStatement.executeUpdate();
+            }
+          }
+        }
+      }
+      recording.stop();
+      recording.dump(file);
+    }
+  }
+
+}
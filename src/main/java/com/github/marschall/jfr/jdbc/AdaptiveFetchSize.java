@@ -0,0 +1,106 @@
+package com.github.marschall.jfr.jdbc;
+
+/**
+ * Chooses the fetch size of queries based on the number of rows read by
+ * previous executions of the same query string.
+ * <p>
+ * The estimate per query string is kept in {@link QueryInfo}, it follows
+ * increases immediately and decreases slowly. The fetch size is the
+ * estimate plus one, so that the end of the result set is detected without
+ * an additional round trip, rounded up to a power of two to avoid frequent
+ * changes and clamped to the configured bounds.
+ */
+final class AdaptiveFetchSize {
+
+  static final String PROPERTY = "com.github.marschall.jfr.jdbc.adaptiveFetchSize";
+
+  private final int minimum;
+
+  private final int maximum;
+
+  AdaptiveFetchSize(int minimum, int maximum) {
+    this.minimum = minimum;
+    this.maximum = maximum;
+  }
+
+  /**
+   * Creates the adaptive fetch size for a new connection.
+   *
+   * @return the adaptive fetch size, {@code null} if disabled or the
+   *         bounds are invalid
+   */
+  static AdaptiveFetchSize newInstanceIfEnabled() {
+    String value = System.getProperty(PROPERTY);
+    if (value == null) {
+      return null;
+    }
+    return parse(value);
+  }
+
+  /**
+   * Parses the bounds of the fetch size in the form {@code min,max}.
+   *
+   * @param value the bounds
+   * @return the adaptive fetch size, {@code null} if the bounds are invalid
+   */
+  static AdaptiveFetchSize parse(String value) {
+    int comma = value.indexOf(',');
+    if (comma == -1) {
+      return null;
+    }
+    int minimum;
+    int maximum;
+    try {
+      minimum = Integer.parseInt(value.substring(0, comma).trim());
+      maximum = Integer.parseInt(value.substring(comma + 1).trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    if ((minimum <= 0) || (maximum < minimum)) {
+      return null;
+    }
+    return new AdaptiveFetchSize(minimum, maximum);
+  }
+
+  /**
+   * Updates the fetch size of a query string after a result set has been
+   * closed and generates a {@link JdbcFetchSizeEvent} if it changed.
+   *
+   * @param queryInfo the query string
+   * @param rowCount the number of rows read from the result set
+   */
+  void rowsFetched(QueryInfo queryInfo, long rowCount) {
+    int rows = (int) Math.min(rowCount, this.maximum);
+    int estimate = queryInfo.fetchRowEstimate;
+    if (rows >= estimate) {
+      estimate = rows;
+    } else {
+      estimate -= (estimate - rows + 3) >> 2;
+    }
+    queryInfo.fetchRowEstimate = estimate;
+
+    int fetchSize = this.fetchSize(estimate);
+    int previousFetchSize = queryInfo.fetchSize;
+    if (fetchSize != previousFetchSize) {
+      queryInfo.fetchSize = fetchSize;
+      JdbcFetchSizeEvent.emit(queryInfo, previousFetchSize, fetchSize, rowCount);
+    }
+  }
+
+  int fetchSize(int estimate) {
+    int fetchSize = ceilingPowerOfTwo(estimate + 1);
+    return Math.max(this.minimum, Math.min(fetchSize, this.maximum));
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    if (value <= 1) {
+      return 1;
+    }
+    int highestOneBit = Integer.highestOneBit(value - 1);
+    if (highestOneBit >= (1 << 30)) {
+      return Integer.MAX_VALUE;
+    }
+    return highestOneBit << 1;
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.SettingControl;
+
+/**
+ * Configures the call threshold of {@link ExplainPlanCollector}.
+ * <p>
+ * The value is a duration in the same format as the JFR {@code threshold}
+ * setting, eg. {@code "500 ms"}. With multiple recordings the smallest
+ * value wins.
+ */
+final class CallThresholdSetting extends SettingControl {
+
+  static final String DEFAULT = "1 s";
+
+  private String value = DEFAULT;
+
+  CallThresholdSetting() {
+    super();
+  }
+
+  @Override
+  public String combine(Set<String> settingValues) {
+    String min = null;
+    long minNanos = Long.MAX_VALUE;
+    for (String settingValue : settingValues) {
+      long nanos = parseNanos(settingValue);
+      if (nanos < minNanos) {
+        minNanos = nanos;
+        min = settingValue;
+      }
+    }
+    return min != null ? min : DEFAULT;
+  }
+
+  @Override
+  public void setValue(String settingValue) {
+    this.value = settingValue;
+    ExplainPlanCollector.setCallThreshold(parseNanos(settingValue));
+  }
+
+  @Override
+  public String getValue() {
+    return this.value;
+  }
+
+  /**
+   * Parses a duration like {@code "20 ms"}.
+   *
+   * @param settingValue the duration to parse, not {@code null}
+   * @return the duration in nanoseconds, {@link Long#MAX_VALUE} if invalid
+   */
+  static long parseNanos(String settingValue) {
+    String trimmed = settingValue.trim();
+    int unitStart = 0;
+    while (unitStart < trimmed.length() && Character.isDigit(trimmed.charAt(unitStart))) {
+      unitStart += 1;
+    }
+    if (unitStart == 0) {
+      return Long.MAX_VALUE;
+    }
+    long amount;
+    try {
+      amount = Long.parseLong(trimmed.substring(0, unitStart));
+    } catch (NumberFormatException e) {
+      return Long.MAX_VALUE;
+    }
+    TimeUnit unit;
+    switch (trimmed.substring(unitStart).trim()) {
+      case "ns":
+        unit = TimeUnit.NANOSECONDS;
+        break;
+      case "us":
+        unit = TimeUnit.MICROSECONDS;
+        break;
+      case "ms":
+        unit = TimeUnit.MILLISECONDS;
+        break;
+      case "s":
+        unit = TimeUnit.SECONDS;
+        break;
+      case "m":
+        unit = TimeUnit.MINUTES;
+        break;
+      case "h":
+        unit = TimeUnit.HOURS;
+        break;
+      case "d":
+        unit = TimeUnit.DAYS;
+        break;
+      default:
+        return Long.MAX_VALUE;
+    }
+    return unit.toNanos(amount);
+  }
+
+}
@@ -0,0 +1,275 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Finds the application method that executed a query string.
+ * <p>
+ * Frames of the JDK, of this library and of the configured framework
+ * packages are skipped. The stack is only walked up to the first frame
+ * outside the JDK and this library, the call site. The caller is cached
+ * per query string and call site in {@link QueryInfo}, only if it is not
+ * cached or older than {@value #REFRESH_INTERVAL_NANOS} ns the stack is
+ * walked past the framework frames. So a query string executed through
+ * the same framework method from several application methods is
+ * attributed to the method that executed it when the cache was last
+ * refreshed.
+ */
+final class CallerAttribution {
+
+  static final String PROPERTY = "com.github.marschall.jfr.jdbc.callerAttribution";
+
+  static final String SKIP_PACKAGES_PROPERTY = "com.github.marschall.jfr.jdbc.callerSkipPackages";
+
+  static final String DEFAULT_SKIP_PACKAGES = "org.springframework.,org.hibernate.,org.apache.ibatis.,org.jooq.,com.zaxxer.hikari.,org.apache.commons.dbcp2.,org.apache.tomcat.jdbc.";
+
+  private static final String[] ALWAYS_SKIPPED = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "com.github.marschall.jfr.jdbc."};
+
+  static final long REFRESH_INTERVAL_NANOS = 10_000_000_000L;
+
+  /**
+   * The maximum number of call sites cached per query string.
+   */
+  private static final int MAX_CALL_SITES = 8;
+
+  private static final StackWalker WALKER = StackWalker.getInstance();
+
+  private final String[] skippedPackages;
+
+  CallerAttribution(String[] skippedPackages) {
+    this.skippedPackages = skippedPackages;
+  }
+
+  /**
+   * Creates the caller attribution for a new connection.
+   *
+   * @return the caller attribution, {@code null} unless enabled with
+   *         {@value #PROPERTY}
+   */
+  static CallerAttribution newInstanceIfEnabled() {
+    if (!Boolean.getBoolean(PROPERTY)) {
+      return null;
+    }
+    return new CallerAttribution(skippedPackages(System.getProperty(SKIP_PACKAGES_PROPERTY, DEFAULT_SKIP_PACKAGES)));
+  }
+
+  static String[] skippedPackages(String frameworkPackages) {
+    List<String> skipped = new ArrayList<>(List.of(ALWAYS_SKIPPED));
+    for (String frameworkPackage : frameworkPackages.split(",")) {
+      String trimmed = frameworkPackage.trim();
+      if (!trimmed.isEmpty()) {
+        skipped.add(trimmed);
+      }
+    }
+    return skipped.toArray(new String[0]);
+  }
+
+  private static boolean isAlwaysSkipped(String className) {
+    for (String skippedPackage : ALWAYS_SKIPPED) {
+      if (className.startsWith(skippedPackage)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isSkipped(String className) {
+    for (String skippedPackage : this.skippedPackages) {
+      if (className.startsWith(skippedPackage)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Looks up the caller of a query string for the call site, walks the
+   * whole stack if it is not cached or the cached value is outdated.
+   *
+   * @param queryInfo the query string
+   * @return the caller, {@code null} if no frame is outside the skipped
+   *         packages
+   */
+  Caller caller(QueryInfo queryInfo) {
+    StackFrame callSite = WALKER.walk(CallerAttribution::callSite);
+    if (callSite == null) {
+      // only frames of the JDK and this library
+      return null;
+    }
+    long now = System.nanoTime();
+    Caller[] callers = queryInfo.callers;
+    Caller cached = find(callers, callSite);
+    if (cached == null || now - cached.timestamp > REFRESH_INTERVAL_NANOS) {
+      cached = this.walk(now, callSite);
+      // benign data race, at worst the stack is walked more than once or a call site is not cached
+      queryInfo.callers = replace(callers, cached);
+    }
+    return cached.orNull();
+  }
+
+  private static StackFrame callSite(Stream<StackFrame> frames) {
+    Iterator<StackFrame> iterator = frames.iterator();
+    while (iterator.hasNext()) {
+      StackFrame frame = iterator.next();
+      if (!isAlwaysSkipped(frame.getClassName())) {
+        return frame;
+      }
+    }
+    return null;
+  }
+
+  private Caller walk(long now, StackFrame callSite) {
+    if (!this.isSkipped(callSite.getClassName())) {
+      // the application calls JDBC directly
+      return new Caller(callSite.getClassName(), callSite.getMethodName(), now, callSite);
+    }
+    StackFrame frame = WALKER.walk(this::firstNotSkipped);
+    if (frame != null) {
+      return new Caller(frame.getClassName(), frame.getMethodName(), now, callSite);
+    }
+    // cache that there is no caller
+    return new Caller(null, null, now, callSite);
+  }
+
+  private StackFrame firstNotSkipped(Stream<StackFrame> frames) {
+    Iterator<StackFrame> iterator = frames.iterator();
+    while (iterator.hasNext()) {
+      StackFrame frame = iterator.next();
+      if (!this.isSkipped(frame.getClassName())) {
+        return frame;
+      }
+    }
+    return null;
+  }
+
+  private static Caller find(Caller[] callers, StackFrame callSite) {
+    if (callers == null) {
+      return null;
+    }
+    for (Caller caller : callers) {
+      if (caller.isCalledFrom(callSite)) {
+        return caller;
+      }
+    }
+    return null;
+  }
+
+  private static Caller[] replace(Caller[] callers, Caller caller) {
+    if (callers == null) {
+      return new Caller[] {caller};
+    }
+    for (int i = 0; i < callers.length; i++) {
+      if (callers[i].isCalledFrom(caller)) {
+        Caller[] copy = callers.clone();
+        copy[i] = caller;
+        return copy;
+      }
+    }
+    if (callers.length >= MAX_CALL_SITES) {
+      // replace the oldest, otherwise a new call site would walk the stack on every call
+      int oldest = 0;
+      for (int i = 1; i < callers.length; i++) {
+        if (callers[i].timestamp - callers[oldest].timestamp < 0L) {
+          oldest = i;
+        }
+      }
+      Caller[] copy = callers.clone();
+      copy[oldest] = caller;
+      return copy;
+    }
+    Caller[] copy = Arrays.copyOf(callers, callers.length + 1);
+    copy[callers.length] = caller;
+    return copy;
+  }
+
+  void attribute(JdbcOperationEvent event, QueryInfo queryInfo) {
+    if (event.isEnabled()) {
+      Caller caller = this.caller(queryInfo);
+      if (caller != null) {
+        event.callerClass = caller.className;
+        event.callerMethod = caller.methodName;
+      }
+    }
+  }
+
+  /**
+   * Attributes the operation that created a statement, uses the caller of
+   * the call of the statement if it has one instead of walking the stack
+   * again.
+   *
+   * @param event the operation creating the statement
+   * @param callEvent the call of the statement
+   * @param queryInfo the query string of the statement
+   */
+  void attribute(JdbcOperationEvent event, JdbcCallEvent callEvent, QueryInfo queryInfo) {
+    if (callEvent.callerClass != null) {
+      event.callerClass = callEvent.callerClass;
+      event.callerMethod = callEvent.callerMethod;
+    } else {
+      this.attribute(event, queryInfo);
+    }
+  }
+
+  void attribute(JdbcCallEvent event, QueryInfo queryInfo) {
+    if (event.isEnabled()) {
+      Caller caller = this.caller(queryInfo);
+      if (caller != null) {
+        event.callerClass = caller.className;
+        event.callerMethod = caller.methodName;
+      }
+    }
+  }
+
+  /**
+   * The application method that executed a query string from a call site.
+   */
+  static final class Caller {
+
+    final String className;
+
+    final String methodName;
+
+    /**
+     * The {@link System#nanoTime()} when the stack was walked.
+     */
+    final long timestamp;
+
+    private final String callSiteClassName;
+
+    private final String callSiteMethodName;
+
+    private final int callSiteByteCodeIndex;
+
+    Caller(String className, String methodName, long timestamp, StackFrame callSite) {
+      this.className = className;
+      this.methodName = methodName;
+      this.timestamp = timestamp;
+      this.callSiteClassName = callSite.getClassName();
+      this.callSiteMethodName = callSite.getMethodName();
+      this.callSiteByteCodeIndex = callSite.getByteCodeIndex();
+    }
+
+    boolean isCalledFrom(StackFrame callSite) {
+      return this.callSiteByteCodeIndex == callSite.getByteCodeIndex()
+              && callSite.getMethodName().equals(this.callSiteMethodName)
+              && callSite.getClassName().equals(this.callSiteClassName);
+    }
+
+    boolean isCalledFrom(Caller other) {
+      return this.callSiteByteCodeIndex == other.callSiteByteCodeIndex
+              && this.callSiteMethodName.equals(other.callSiteMethodName)
+              && this.callSiteClassName.equals(other.callSiteClassName);
+    }
+
+    Caller orNull() {
+      return this.className != null ? this : null;
+    }
+
+  }
+
+}
@@ -0,0 +1,79 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from an {@link InputStream} of a LOB.
+ */
+final class CountingInputStream extends InputStream {
+
+  private final InputStream delegate;
+
+  private final LobTracker tracker;
+
+  /**
+   * Whether closing the stream completes the tracker, {@code false} if the
+   * stream belongs to a {@link JfrBlob} or {@link JfrClob}.
+   */
+  private final boolean completeOnClose;
+
+  CountingInputStream(InputStream delegate, LobTracker tracker, boolean completeOnClose) {
+    this.delegate = delegate;
+    this.tracker = tracker;
+    this.completeOnClose = completeOnClose;
+  }
+
+  @Override
+  public int read() throws IOException {
+    long start = System.nanoTime();
+    int value = this.delegate.read();
+    this.tracker.bytesRead(value != -1 ? 1L : 0L, System.nanoTime() - start);
+    return value;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    long start = System.nanoTime();
+    int read = this.delegate.read(b, off, len);
+    this.tracker.bytesRead(Math.max(read, 0), System.nanoTime() - start);
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    return this.delegate.skip(n);
+  }
+
+  @Override
+  public int available() throws IOException {
+    return this.delegate.available();
+  }
+
+  @Override
+  public void mark(int readlimit) {
+    this.delegate.mark(readlimit);
+  }
+
+  @Override
+  public void reset() throws IOException {
+    this.delegate.reset();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return this.delegate.markSupported();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.delegate.close();
+    } finally {
+      if (this.completeOnClose) {
+        this.tracker.complete();
+      }
+    }
+  }
+
+}
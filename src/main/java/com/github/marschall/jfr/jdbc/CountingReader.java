@@ -0,0 +1,79 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Counts the characters read from a {@link Reader} of a LOB.
+ */
+final class CountingReader extends Reader {
+
+  private final Reader delegate;
+
+  private final LobTracker tracker;
+
+  /**
+   * Whether closing the reader completes the tracker, {@code false} if the
+   * reader belongs to a {@link JfrClob}.
+   */
+  private final boolean completeOnClose;
+
+  CountingReader(Reader delegate, LobTracker tracker, boolean completeOnClose) {
+    this.delegate = delegate;
+    this.tracker = tracker;
+    this.completeOnClose = completeOnClose;
+  }
+
+  @Override
+  public int read() throws IOException {
+    long start = System.nanoTime();
+    int value = this.delegate.read();
+    this.tracker.charactersRead(value != -1 ? 1L : 0L, System.nanoTime() - start);
+    return value;
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    long start = System.nanoTime();
+    int read = this.delegate.read(cbuf, off, len);
+    this.tracker.charactersRead(Math.max(read, 0), System.nanoTime() - start);
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    return this.delegate.skip(n);
+  }
+
+  @Override
+  public boolean ready() throws IOException {
+    return this.delegate.ready();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return this.delegate.markSupported();
+  }
+
+  @Override
+  public void mark(int readAheadLimit) throws IOException {
+    this.delegate.mark(readAheadLimit);
+  }
+
+  @Override
+  public void reset() throws IOException {
+    this.delegate.reset();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.delegate.close();
+    } finally {
+      if (this.completeOnClose) {
+        this.tracker.complete();
+      }
+    }
+  }
+
+}
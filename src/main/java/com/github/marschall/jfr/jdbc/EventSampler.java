@@ -0,0 +1,108 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decides whether a {@link JdbcOperationEvent} should be recorded, based on
+ * the {@link SamplingSetting}.
+ * <p>
+ * The first occurrences of each fingerprint are always recorded, after that
+ * only every n-th occurrence. Occurrences are counted in a fixed size table
+ * indexed by the fingerprint hash, fingerprints that collide share a counter.
+ * On top of that at most a fixed number of events per second are recorded.
+ * <p>
+ * The decision is made before the event is populated, rejected events are
+ * filtered in {@link JdbcOperationEvent#shouldCommit()}.
+ */
+final class EventSampler {
+
+  static final long UNLIMITED = Long.MAX_VALUE;
+
+  private static final int TABLE_SIZE = 4096;
+
+  private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+  private static final AtomicLongArray OCCURRENCES = new AtomicLongArray(TABLE_SIZE);
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+  private static final AtomicLong WINDOW_START = new AtomicLong(System.nanoTime());
+
+  private static final AtomicLong WINDOW_COUNT = new AtomicLong();
+
+  private static volatile long sampleFirst = UNLIMITED;
+
+  private static volatile long sampleInterval = 1L;
+
+  private static volatile long throttle = UNLIMITED;
+
+  // true if any of the settings is not the default
+  private static volatile boolean active;
+
+  private EventSampler() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Whether an event for a query should be recorded.
+   *
+   * @param queryInfo the query of the event
+   * @return {@code true} if the event should be recorded
+   */
+  static boolean sample(QueryInfo queryInfo) {
+    if (!active) {
+      return true;
+    }
+    long first = sampleFirst;
+    if (first != UNLIMITED) {
+      int index = (int) (queryInfo.fingerprintHash ^ (queryInfo.fingerprintHash >>> 32)) & TABLE_MASK;
+      long occurrence = OCCURRENCES.getAndIncrement(index);
+      if (occurrence >= first && (occurrence - first) % sampleInterval != 0L) {
+        return false;
+      }
+    }
+    return withinThrottle();
+  }
+
+  /**
+   * Whether an event without a query should be recorded.
+   *
+   * @return {@code true} if the event should be recorded
+   */
+  static boolean sample() {
+    if (!active) {
+      return true;
+    }
+    return withinThrottle();
+  }
+
+  private static boolean withinThrottle() {
+    long limit = throttle;
+    if (limit == UNLIMITED) {
+      return true;
+    }
+    long now = System.nanoTime();
+    long windowStart = WINDOW_START.get();
+    if (now - windowStart >= NANOS_PER_SECOND && WINDOW_START.compareAndSet(windowStart, now)) {
+      // not exact, a few events from the previous window may be counted in the new one
+      WINDOW_COUNT.set(0L);
+    }
+    return WINDOW_COUNT.incrementAndGet() <= limit;
+  }
+
+  static synchronized void configure(long first, long interval, long eventsPerSecond) {
+    sampleFirst = first;
+    sampleInterval = interval;
+    throttle = eventsPerSecond;
+    // start counting again for the new settings
+    for (int i = 0; i < TABLE_SIZE; i++) {
+      OCCURRENCES.set(i, 0L);
+    }
+    WINDOW_START.set(System.nanoTime());
+    WINDOW_COUNT.set(0L);
+    active = (first != UNLIMITED && interval > 1L) || eventsPerSecond != UNLIMITED;
+  }
+
+}
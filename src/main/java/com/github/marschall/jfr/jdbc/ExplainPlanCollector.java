@@ -0,0 +1,332 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+/**
+ * Captures the execution plans of slow statements in the background.
+ * <p>
+ * Slow calls are queued and the plans are captured on a daemon thread
+ * using a separate, unwrapped connection from the actual data source. The
+ * plan of a fingerprint is captured at most once per {@link #INTERVAL}. If
+ * the queue is full slow calls are dropped rather than slowing down the
+ * calling thread.
+ * <p>
+ * Parameters are bound to {@code NULL} which may result in a different plan
+ * than the one used for the actual values.
+ * <p>
+ * Only single {@code SELECT} and {@code WITH} statements are explained so
+ * that the capture never modifies data, see {@link #isSingleQuery(String)}.
+ */
+final class ExplainPlanCollector {
+
+  static final long INTERVAL = TimeUnit.MINUTES.toNanos(10L);
+
+  private static final int QUEUE_CAPACITY = 64;
+
+  private static final int MAX_FINGERPRINTS = 1024;
+
+  private static volatile long callThreshold = CallThresholdSetting.parseNanos(CallThresholdSetting.DEFAULT);
+
+  private final DataSource dataSource;
+
+  private final BlockingQueue<SlowCall> queue;
+
+  /**
+   * The {@link System#nanoTime()} of the last capture per fingerprint hash.
+   */
+  private final Map<Long, Long> lastCaptures;
+
+  // guarded by this
+  private Thread worker;
+
+  private volatile boolean closed;
+
+  // only accessed by the worker thread
+  private ExplainDialect dialect;
+
+  ExplainPlanCollector(DataSource dataSource) {
+    this.dataSource = dataSource;
+    this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    this.lastCaptures = new ConcurrentHashMap<>();
+  }
+
+  static void setCallThreshold(long nanos) {
+    callThreshold = nanos;
+  }
+
+  /**
+   * Called after a call has been completed.
+   *
+   * @param queryInfo the query of the call
+   * @param duration the duration of the call in nanoseconds
+   */
+  void callCompleted(QueryInfo queryInfo, long duration) {
+    if (duration < callThreshold || this.closed) {
+      return;
+    }
+    long now = System.nanoTime();
+    Long key = queryInfo.fingerprintHash;
+    Long lastCapture = this.lastCaptures.get(key);
+    if (lastCapture != null && now - lastCapture < INTERVAL) {
+      return;
+    }
+    if (this.lastCaptures.size() >= MAX_FINGERPRINTS) {
+      // the plans will be captured again earlier, acceptable for a bound
+      this.lastCaptures.clear();
+    }
+    this.lastCaptures.put(key, now);
+    if (this.queue.offer(new SlowCall(queryInfo, duration))) {
+      this.ensureWorkerStarted();
+    } else {
+      // the queue is full, retry with the next slow call
+      this.lastCaptures.remove(key, now);
+    }
+  }
+
+  private synchronized void ensureWorkerStarted() {
+    if (this.worker == null && !this.closed) {
+      var thread = new Thread(this::run, "jfr-jdbc-explain");
+      thread.setDaemon(true);
+      thread.start();
+      this.worker = thread;
+    }
+  }
+
+  /**
+   * Stops the background thread, slow calls completed afterwards are
+   * ignored.
+   */
+  synchronized void close() {
+    this.closed = true;
+    this.queue.clear();
+    if (this.worker != null) {
+      this.worker.interrupt();
+      this.worker = null;
+    }
+  }
+
+  private void run() {
+    while (true) {
+      SlowCall slowCall;
+      try {
+        slowCall = this.queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      this.capture(slowCall);
+    }
+  }
+
+  private void capture(SlowCall slowCall) {
+    var event = new JdbcExplainPlanEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.begin();
+    event.query = slowCall.queryInfo.sql;
+    event.fingerprint = slowCall.queryInfo.fingerprint;
+    event.fingerprintHash = slowCall.queryInfo.fingerprintHash;
+    event.callDuration = slowCall.duration;
+    if (!isSingleQuery(slowCall.queryInfo.sql)) {
+      event.error = "only single SELECT and WITH statements are explained";
+      event.end();
+      event.commit();
+      return;
+    }
+    try (Connection connection = this.dataSource.getConnection()) {
+      if (this.dialect == null) {
+        this.dialect = ExplainDialect.of(connection.getMetaData().getDatabaseProductName());
+      }
+      String explainSql = this.dialect.explain(slowCall.queryInfo.sql);
+      if (explainSql == null) {
+        event.error = "EXPLAIN not supported for " + connection.getMetaData().getDatabaseProductName();
+      } else {
+        event.plan = explain(connection, explainSql);
+      }
+    } catch (SQLException | RuntimeException e) {
+      event.error = e.getMessage();
+    }
+    event.end();
+    event.commit();
+  }
+
+  /**
+   * Whether a query string is a single {@code SELECT} or {@code WITH}
+   * statement that can safely be prefixed with {@code EXPLAIN}.
+   * <p>
+   * Quoted literals and identifiers may contain any character except a
+   * backslash, databases disagree whether it escapes the quote. Outside of
+   * them {@code ;} is rejected as well as comments, {@code #}, {@code $}
+   * and {@code [} which some databases use to start comments or quotes,
+   * otherwise the end of a literal could be ambiguous.
+   *
+   * @param sql the query string, not {@code null}
+   * @return {@code true} if the query string can be explained
+   */
+  static boolean isSingleQuery(String sql) {
+    int length = sql.length();
+    int start = 0;
+    while (start < length && Character.isWhitespace(sql.charAt(start))) {
+      start += 1;
+    }
+    if (!startsWithKeyword(sql, start, "SELECT") && !startsWithKeyword(sql, start, "WITH")) {
+      return false;
+    }
+    char quote = 0;
+    for (int i = start; i < length; i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          // a doubled quote closes and immediately reopens the literal
+          quote = 0;
+        } else if (c == '\\') {
+          return false;
+        }
+      } else {
+        switch (c) {
+          case '\'':
+          case '"':
+          case '`':
+            quote = c;
+            break;
+          case ';':
+          case '#':
+          case '$':
+          case '[':
+            return false;
+          case '-':
+          case '/':
+            if (i + 1 < length && sql.charAt(i + 1) == (c == '-' ? '-' : '*')) {
+              return false;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    return quote == 0;
+  }
+
+  private static boolean startsWithKeyword(String sql, int start, String keyword) {
+    int end = start + keyword.length();
+    if (!sql.regionMatches(true, start, keyword, 0, keyword.length())) {
+      return false;
+    }
+    return end == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(end));
+  }
+
+  private static String explain(Connection connection, String explainSql) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(explainSql)) {
+      bindNulls(statement);
+      var plan = new StringBuilder();
+      try (var resultSet = statement.executeQuery()) {
+        int columnCount = resultSet.getMetaData().getColumnCount();
+        while (resultSet.next()) {
+          if (plan.length() > 0) {
+            plan.append('\n');
+          }
+          for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) {
+              plan.append(' ');
+            }
+            plan.append(resultSet.getString(i));
+          }
+        }
+      }
+      return plan.toString();
+    }
+  }
+
+  private static void bindNulls(PreparedStatement statement) throws SQLException {
+    ParameterMetaData parameterMetaData = statement.getParameterMetaData();
+    int parameterCount = parameterMetaData.getParameterCount();
+    for (int i = 1; i <= parameterCount; i++) {
+      int type;
+      try {
+        type = parameterMetaData.getParameterType(i);
+      } catch (SQLException e) {
+        type = Types.NULL;
+      }
+      statement.setNull(i, type);
+    }
+  }
+
+  static final class SlowCall {
+
+    final QueryInfo queryInfo;
+
+    final long duration;
+
+    SlowCall(QueryInfo queryInfo, long duration) {
+      this.queryInfo = queryInfo;
+      this.duration = duration;
+    }
+
+  }
+
+  /**
+   * Creates the statement returning the execution plan of a query for a
+   * database.
+   */
+  enum ExplainDialect {
+
+    EXPLAIN("EXPLAIN "),
+
+    EXPLAIN_QUERY_PLAN("EXPLAIN QUERY PLAN "),
+
+    EXPLAIN_PLAN_FOR("EXPLAIN PLAN FOR "),
+
+    UNSUPPORTED(null);
+
+    private final String prefix;
+
+    ExplainDialect(String prefix) {
+      this.prefix = prefix;
+    }
+
+    static ExplainDialect of(String databaseProductName) {
+      String name = databaseProductName.toLowerCase(Locale.ROOT);
+      if (name.contains("h2") || name.contains("postgresql") || name.contains("mysql") || name.contains("mariadb")) {
+        return EXPLAIN;
+      } else if (name.contains("sqlite")) {
+        return EXPLAIN_QUERY_PLAN;
+      } else if (name.contains("hsql")) {
+        // HSQLDB returns the plan as a result set, Oracle and DB2 do not
+        return EXPLAIN_PLAN_FOR;
+      }
+      return UNSUPPORTED;
+    }
+
+    /**
+     * Returns the statement to get the execution plan.
+     *
+     * @param sql the query string, not {@code null}
+     * @return the statement to get the execution plan, {@code null} if
+     *         not supported
+     */
+    String explain(String sql) {
+      if (this.prefix == null) {
+        return null;
+      }
+      return this.prefix + sql;
+    }
+
+  }
+
+}
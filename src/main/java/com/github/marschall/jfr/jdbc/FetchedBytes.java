@@ -0,0 +1,67 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+
+/**
+ * Estimates the number of bytes of the values returned by a result set.
+ * <p>
+ * The estimate is a rough approximation of the size on the wire, strings
+ * are counted with one byte per character, numbers and dates with their
+ * binary size. It only inspects the value, no allocation is done.
+ */
+final class FetchedBytes {
+
+  static final String PROPERTY = "com.github.marschall.jfr.jdbc.fetchedBytes";
+
+  private FetchedBytes() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Whether fetched bytes should be estimated for a new result set.
+   *
+   * @return {@code true} if enabled with {@value #PROPERTY}
+   */
+  static boolean isEnabled() {
+    return Boolean.getBoolean(PROPERTY);
+  }
+
+  static long estimate(Object value) {
+    if (value == null) {
+      return 0L;
+    }
+    if (value instanceof String) {
+      return ((String) value).length();
+    }
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    }
+    if (value instanceof BigDecimal) {
+      // about two decimal digits per byte
+      return (((BigDecimal) value).precision() >> 1) + 1L;
+    }
+    if (value instanceof BigInteger) {
+      return (((BigInteger) value).bitLength() >> 3) + 1L;
+    }
+    if ((value instanceof Long) || (value instanceof Double)) {
+      return Long.BYTES;
+    }
+    if ((value instanceof Integer) || (value instanceof Float)) {
+      return Integer.BYTES;
+    }
+    if (value instanceof Short) {
+      return Short.BYTES;
+    }
+    if ((value instanceof Byte) || (value instanceof Boolean)) {
+      return Byte.BYTES;
+    }
+    if ((value instanceof java.util.Date) || (value instanceof Temporal)) {
+      return Long.BYTES;
+    }
+    // LOBs are reported in JdbcLobEvent, the size of other objects is unknown
+    return 0L;
+  }
+
+}
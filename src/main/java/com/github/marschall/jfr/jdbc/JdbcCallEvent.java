@@ -1,9 +1,12 @@
 package com.github.marschall.jfr.jdbc;
 
 import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
 import jdk.jfr.Description;
 import jdk.jfr.Event;
 import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
 
 @Label("JDBC Call")
 @Description("A JDBC Call")
@@ -14,15 +17,148 @@ class JdbcCallEvent extends Event {
   @Description("The SQL query string")
   String query;
 
+  @Label("Query Id")
+  @Description("The 64 bit hash of the SQL query string, see JdbcQueryTextEvent")
+  long queryId;
+
+  @Label("Fingerprint")
+  @Description("The SQL query string with literals replaced, to group similar queries")
+  String fingerprint;
+
+  @Label("Fingerprint Hash")
+  @Description("The 64 bit hash of the fingerprint")
+  long fingerprintHash;
+
   @Label("Row Count")
   @Description("The number of rows returned or updated")
   // long instead of int to avoid overflows for batch updates
   long rowCount;
+
+  @Label("Batch Count")
+  @Description("The number of batches executed")
+  long batchCount;
+
+  @Label("Batched Statements")
+  @Description("The total number of statements added to the executed batches")
+  long batchStatementCount;
+
+  @Label("Max Batch Size")
+  @Description("The number of statements in the largest executed batch")
+  long maxBatchSize;
+
+  @Label("No Info Count")
+  @Description("The number of batched statements for which the driver did not report a row count")
+  long noInfoCount;
   
+  @Label("Rows per Millisecond")
+  @Description("The number of rows returned or updated per millisecond of duration")
+  double rowsPerMillisecond;
+
+  @Label("Fetched Bytes")
+  @Description("An estimate of the bytes returned by the getters of the result set, only if enabled")
+  @DataAmount
+  long fetchedBytes;
+
+  @Label("Failed")
+  @Description("Whether an execution of the statement threw an exception")
+  boolean failed;
+
+  @Label("Caller Class")
+  @Description("The class of the first application method on the stack, only if caller attribution is enabled")
+  String callerClass;
+
+  @Label("Caller Method")
+  @Description("The first application method on the stack, only if caller attribution is enabled")
+  String callerMethod;
+
   transient boolean closed = false;
 
+  private transient long startNanos;
+
+  private transient QueryInfo queryInfo;
+
+  // true if the query string does not match the SqlFilterSetting
+  private transient boolean filteredOut;
+
+  // null if plans are not captured for the connection
+  private transient ExplainPlanCollector explainPlanCollector;
+
   JdbcCallEvent(String query) {
     this.query = query;
   }
 
+  JdbcCallEvent(QueryInfo queryInfo, JfrConnection connection) {
+    this(queryInfo);
+    if (this.filteredOut) {
+      // never committed, neither explained nor attributed
+      return;
+    }
+    this.explainPlanCollector = connection.explainPlanCollector;
+    if (connection.callerAttribution != null) {
+      connection.callerAttribution.attribute(this, queryInfo);
+    }
+  }
+
+  JdbcCallEvent(QueryInfo queryInfo) {
+    this.queryInfo = queryInfo;
+    // query and fingerprint are resolved in #complete()
+    this.queryId = queryInfo.queryId;
+    this.fingerprintHash = queryInfo.fingerprintHash;
+    this.filteredOut = !queryInfo.isCallRecorded();
+  }
+
+  @Label("SQL Filter")
+  @Description("A regular expression, only calls of statements with query strings containing a match are recorded, or \"all\"")
+  @Name("filter")
+  @SettingDefinition
+  protected boolean filter(SqlFilterSetting setting) {
+    // the decision is made when the statement is created
+    return !this.filteredOut;
+  }
+
+  /**
+   * The query of the call.
+   *
+   * @return the query, {@code null} if the call has no query string
+   */
+  QueryInfo getQueryInfo() {
+    return this.queryInfo;
+  }
+
+  /**
+   * Begins the call, use instead of {@link #begin()}.
+   */
+  void start() {
+    this.startNanos = System.nanoTime();
+    this.begin();
+  }
+
+  /**
+   * Ends and commits the call, use instead of {@link #end()} and
+   * {@link #commit()}.
+   */
+  void complete() {
+    this.end();
+    boolean commit = this.shouldCommit();
+    boolean explain = this.explainPlanCollector != null && JdbcRecordingState.isExplainEnabled();
+    if (commit || explain) {
+      long duration = System.nanoTime() - this.startNanos;
+      if (explain) {
+        this.explainPlanCollector.callCompleted(this.queryInfo, duration);
+      }
+      if (commit) {
+        if (duration > 0L) {
+          this.rowsPerMillisecond = this.rowCount * 1_000_000.0d / duration;
+        }
+        if (this.queryInfo != null) {
+          // resolved at commit so that the dictionary entry is in the same chunk
+          this.query = this.queryInfo.recordedSql();
+          this.fingerprint = this.queryInfo.recordedFingerprint();
+        }
+        this.commit();
+      }
+    }
+    this.closed = true;
+  }
+
 }
@@ -0,0 +1,64 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The execution plan of a slow statement, captured in the background on a
+ * separate connection.
+ * <p>
+ * Only available for connections from a {@link JfrDataSource}.
+ */
+@Label("JDBC Explain Plan")
+@Description("The execution plan of a statement that exceeded the call threshold")
+@Category("JDBC")
+@Enabled(false)
+@StackTrace(false)
+class JdbcExplainPlanEvent extends Event {
+
+  JdbcExplainPlanEvent() {
+    super();
+  }
+
+  @Label("Query")
+  @Description("The SQL query string")
+  String query;
+
+  @Label("Fingerprint")
+  @Description("The SQL query string with literals replaced, to group similar queries")
+  String fingerprint;
+
+  @Label("Fingerprint Hash")
+  @Description("The 64 bit hash of the fingerprint")
+  long fingerprintHash;
+
+  @Label("Call Duration")
+  @Description("The duration of the call that exceeded the call threshold")
+  @Timespan
+  long callDuration;
+
+  @Label("Plan")
+  @Description("The execution plan as returned by the database")
+  String plan;
+
+  @Label("Error")
+  @Description("The error message if the execution plan could not be captured")
+  String error;
+
+  @Label("Call Threshold")
+  @Description("The duration a call has to exceed for its execution plan to be captured, eg. \"1 s\"")
+  @Name("callThreshold")
+  @SettingDefinition
+  protected boolean callThreshold(CallThresholdSetting setting) {
+    // the decision is made in JdbcCallEvent
+    return true;
+  }
+
+}
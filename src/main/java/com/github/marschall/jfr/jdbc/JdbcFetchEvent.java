@@ -0,0 +1,43 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Timespan;
+
+@Label("JDBC Fetch")
+@Description("The rows fetched from a ResultSet, replaces the individual next() operations")
+@Category("JDBC")
+class JdbcFetchEvent extends Event {
+
+  JdbcFetchEvent() {
+    super();
+  }
+
+  @Label("Query")
+  @Description("The SQL query string")
+  String query;
+
+  @Label("Query Id")
+  @Description("The 64 bit hash of the SQL query string, see JdbcQueryTextEvent")
+  long queryId;
+
+  @Label("Row Count")
+  @Description("The number of rows fetched using next()")
+  long rowCount;
+
+  @Label("Driver Time")
+  @Description("The total time spent in the driver for next()")
+  @Timespan
+  long driverTime;
+
+  @Label("Max Row Time")
+  @Description("The longest time spent in the driver for a single next()")
+  @Timespan
+  long maxRowTime;
+
+  @ObjectId
+  long objectId;
+
+}
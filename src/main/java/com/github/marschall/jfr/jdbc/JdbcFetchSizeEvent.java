@@ -0,0 +1,64 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Generated when the adaptive fetch size of a query string changes.
+ */
+@Label("JDBC Fetch Size")
+@Description("The fetch size chosen for a query string based on the number of rows previously read changed")
+@Category("JDBC")
+@StackTrace(false)
+class JdbcFetchSizeEvent extends Event {
+
+  JdbcFetchSizeEvent() {
+    super();
+  }
+
+  @Label("Query")
+  @Description("The SQL query string")
+  String query;
+
+  @Label("Query Id")
+  @Description("The 64 bit hash of the SQL query string, see JdbcQueryTextEvent")
+  long queryId;
+
+  @Label("Fingerprint")
+  @Description("The SQL query string with literals replaced, to group similar queries")
+  String fingerprint;
+
+  @Label("Fingerprint Hash")
+  @Description("The 64 bit hash of the fingerprint")
+  long fingerprintHash;
+
+  @Label("Previous Fetch Size")
+  @Description("The previously chosen fetch size, 0 if none was chosen yet")
+  int previousFetchSize;
+
+  @Label("Fetch Size")
+  @Description("The newly chosen fetch size")
+  int fetchSize;
+
+  @Label("Row Count")
+  @Description("The number of rows read from the result set that caused the change")
+  long rowCount;
+
+  static void emit(QueryInfo queryInfo, int previousFetchSize, int fetchSize, long rowCount) {
+    var event = new JdbcFetchSizeEvent();
+    if (event.isEnabled()) {
+      event.query = queryInfo.recordedSql();
+      event.queryId = queryInfo.queryId;
+      event.fingerprint = queryInfo.recordedFingerprint();
+      event.fingerprintHash = queryInfo.fingerprintHash;
+      event.previousFetchSize = previousFetchSize;
+      event.fetchSize = fetchSize;
+      event.rowCount = rowCount;
+      event.commit();
+    }
+  }
+
+}
@@ -0,0 +1,52 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Timespan;
+
+@Label("JDBC LOB")
+@Description("The data read from a LOB or stream of a ResultSet, from the get call to the close or free call")
+@Category("JDBC")
+class JdbcLobEvent extends Event {
+
+  JdbcLobEvent() {
+    super();
+  }
+
+  @Label("Query")
+  @Description("The SQL query string")
+  String query;
+
+  @Label("Query Id")
+  @Description("The 64 bit hash of the SQL query string, see JdbcQueryTextEvent")
+  long queryId;
+
+  @Label("LOB Type")
+  @Description("The type of object returned by the ResultSet, eg. Blob or BinaryStream")
+  String lobType;
+
+  @Label("Bytes")
+  @Description("The number of bytes read")
+  @DataAmount
+  long bytes;
+
+  @Label("Characters")
+  @Description("The number of characters read")
+  long characters;
+
+  @Label("Read Count")
+  @Description("The number of read calls")
+  long readCount;
+
+  @Label("Read Time")
+  @Description("The total time spent in read calls")
+  @Timespan
+  long readTime;
+
+  @ObjectId
+  long objectId;
+
+}
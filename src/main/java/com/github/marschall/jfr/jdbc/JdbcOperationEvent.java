@@ -4,6 +4,8 @@ import jdk.jfr.Category;
 import jdk.jfr.Description;
 import jdk.jfr.Event;
 import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
 
 @Label("JDBC Operation")
 @Description("A JDBC Operation")
@@ -11,7 +13,12 @@ import jdk.jfr.Label;
 class JdbcOperationEvent extends Event {
 
   JdbcOperationEvent() {
+    this(false);
+  }
+
+  private JdbcOperationEvent(boolean sampledOut) {
     super();
+    this.sampledOut = sampledOut;
   }
 
   @Label("Object")
@@ -26,7 +33,94 @@ class JdbcOperationEvent extends Event {
   @Description("The SQL query string")
   String query;
 
+  @Label("Query Id")
+  @Description("The 64 bit hash of the SQL query string, see JdbcQueryTextEvent")
+  long queryId;
+
+  @Label("Fingerprint")
+  @Description("The SQL query string with literals replaced, to group similar queries")
+  String fingerprint;
+
+  @Label("Fingerprint Hash")
+  @Description("The 64 bit hash of the fingerprint")
+  long fingerprintHash;
+
   @ObjectId
   long objectId;
 
-}
\ No newline at end of file
+  @Label("Failed")
+  @Description("Whether the execution of a statement threw an exception, only set for executions")
+  boolean failed;
+
+  @Label("Caller Class")
+  @Description("The class of the first application method on the stack, only if caller attribution is enabled")
+  String callerClass;
+
+  @Label("Caller Method")
+  @Description("The first application method on the stack, only if caller attribution is enabled")
+  String callerMethod;
+
+  /**
+   * Shared by all operations rejected by {@link EventSampler}, it is never
+   * committed so concurrent use only races on values that are never read.
+   */
+  private static final JdbcOperationEvent SAMPLED_OUT = new JdbcOperationEvent(true);
+
+  /**
+   * Whether this is {@link #SAMPLED_OUT}.
+   */
+  private final transient boolean sampledOut;
+
+  /**
+   * The query of the operation, {@code null} if the operation has none.
+   */
+  private transient QueryInfo queryInfo;
+
+  /**
+   * Sets the query of the operation, the query string and fingerprint are
+   * only resolved in {@link #complete()} so that they are recorded in the
+   * chunk of the event.
+   *
+   * @param queryInfo the query of the operation
+   */
+  void setQuery(QueryInfo queryInfo) {
+    this.queryInfo = queryInfo;
+    this.queryId = queryInfo.queryId;
+    this.fingerprintHash = queryInfo.fingerprintHash;
+  }
+
+  /**
+   * Ends and commits an operation with a query, use instead of
+   * {@link #end()} and {@link #commit()}.
+   */
+  void complete() {
+    this.end();
+    if (this.shouldCommit()) {
+      var queryInfo = this.queryInfo;
+      if (queryInfo != null) {
+        this.query = queryInfo.recordedSql();
+        this.fingerprint = queryInfo.recordedFingerprint();
+      }
+      this.commit();
+    }
+  }
+
+  /**
+   * Returns the shared event that is never committed, does not allocate.
+   *
+   * @return an event rejected by {@link EventSampler}
+   */
+  static JdbcOperationEvent sampledOut() {
+    return SAMPLED_OUT;
+  }
+
+  @Label("Sampling")
+  @Description("The occurrences of a fingerprint and number of events per second recorded, eg. \"first=100, interval=10, throttle=1000/s\", or \"all\"")
+  @Name("sampling")
+  @SettingDefinition
+  protected boolean sampling(SamplingSetting setting) {
+    // the decision is made in EventSampler before the event is populated
+    return !this.sampledOut;
+  }
+
+}
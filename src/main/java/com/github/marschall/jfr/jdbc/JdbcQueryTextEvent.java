@@ -0,0 +1,57 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Dictionary entry for a SQL query string.
+ * <p>
+ * When enabled in all recordings that record query strings the other JDBC
+ * events no longer contain the query string and fingerprint, only the query
+ * id. Each query string is emitted once per chunk, when the first event
+ * referencing it is committed. The period is only used to
+ * detect the start of a new chunk.
+ */
+@Label("JDBC Query Text")
+@Description("A SQL query string referenced by the query id of the other JDBC events")
+@Category("JDBC")
+@Enabled(false)
+@Period("beginChunk")
+@StackTrace(false)
+class JdbcQueryTextEvent extends Event {
+
+  JdbcQueryTextEvent() {
+    super();
+  }
+
+  @Label("Query Id")
+  @Description("The 64 bit hash of the SQL query string")
+  long queryId;
+
+  @Label("Query")
+  @Description("The SQL query string")
+  String query;
+
+  @Label("Fingerprint")
+  @Description("The SQL query string with literals replaced, to group similar queries")
+  String fingerprint;
+
+  @Label("Fingerprint Hash")
+  @Description("The 64 bit hash of the fingerprint")
+  long fingerprintHash;
+
+  static void emit(QueryInfo queryInfo) {
+    var event = new JdbcQueryTextEvent();
+    event.queryId = queryInfo.queryId;
+    event.query = queryInfo.sql;
+    event.fingerprint = queryInfo.fingerprint;
+    event.fingerprintHash = queryInfo.fingerprintHash;
+    event.commit();
+  }
+
+}
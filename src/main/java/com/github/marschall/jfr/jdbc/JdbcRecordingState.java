@@ -0,0 +1,272 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.SettingDescriptor;
+
+/**
+ * Tracks whether there is a running recording with any of the JDBC events
+ * enabled.
+ * <p>
+ * While no such recording exists connections are not wrapped at all so
+ * that the wrapper can stay deployed with almost no overhead.
+ */
+final class JdbcRecordingState implements FlightRecorderListener {
+
+  private static volatile boolean active;
+
+  private static volatile boolean statisticsEnabled;
+
+  private static volatile boolean transactionEnabled;
+
+  private static volatile boolean explainEnabled;
+
+  private static volatile boolean repeatedQueryEnabled;
+
+  private static volatile boolean validationStatisticsEnabled;
+
+  private static volatile int queryTextEpoch;
+
+  // guarded by the class lock
+  private static int lastQueryTextEpoch;
+
+  // guarded by the class lock
+  private static EventType statisticsEventType;
+
+  // guarded by the class lock
+  private static EventType transactionEventType;
+
+  // guarded by the class lock
+  private static EventType queryTextEventType;
+
+  // guarded by the class lock
+  private static EventType explainPlanEventType;
+
+  // guarded by the class lock
+  private static EventType repeatedQueryEventType;
+
+  // guarded by the class lock
+  private static EventType validationStatisticsEventType;
+
+  // guarded by the class lock
+  private static List<EventType> eventTypes;
+
+  // guarded by the class lock, the events that contain the query string
+  private static List<EventType> queryEventTypes;
+
+  static {
+    if (FlightRecorder.isAvailable()) {
+      // calls #recorderInitialized if the recorder is already initialized
+      FlightRecorder.addListener(new JdbcRecordingState());
+      FlightRecorder.addPeriodicEvent(JdbcStatementStatisticsEvent.class, StatementStatistics::emit);
+      FlightRecorder.addPeriodicEvent(JdbcQueryTextEvent.class, JdbcRecordingState::newChunk);
+      FlightRecorder.addPeriodicEvent(JdbcStatementCacheStatisticsEvent.class, StatementCache::emit);
+      FlightRecorder.addPeriodicEvent(JdbcValidationStatisticsEvent.class, ValidationStatistics::emit);
+    }
+  }
+
+  private JdbcRecordingState() {
+    super();
+  }
+
+  /**
+   * Whether JDBC events should currently be generated.
+   *
+   * @return {@code true} if there is a running recording with any of the
+   *         JDBC events enabled
+   */
+  static boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Whether executions should be recorded in {@link StatementStatistics}.
+   *
+   * @return {@code true} if there is a running recording with
+   *         {@link JdbcStatementStatisticsEvent} enabled
+   */
+  static boolean isStatisticsEnabled() {
+    return statisticsEnabled;
+  }
+
+  /**
+   * Whether transactions should be tracked.
+   *
+   * @return {@code true} if there is a running recording with
+   *         {@link JdbcTransactionEvent} enabled
+   */
+  static boolean isTransactionEnabled() {
+    return transactionEnabled;
+  }
+
+  /**
+   * Whether the plans of slow calls should be captured.
+   *
+   * @return {@code true} if there is a running recording with
+   *         {@link JdbcExplainPlanEvent} enabled
+   */
+  static boolean isExplainEnabled() {
+    return explainEnabled;
+  }
+
+  /**
+   * Whether executions should be counted per scope.
+   *
+   * @return {@code true} if there is a running recording with
+   *         {@link JdbcRepeatedQueryEvent} enabled
+   */
+  static boolean isRepeatedQueryEnabled() {
+    return repeatedQueryEnabled;
+  }
+
+  /**
+   * Whether {@link java.sql.Connection#isValid(int)} calls should be
+   * aggregated instead of generating an event per call.
+   *
+   * @return {@code true} if there is a running recording with
+   *         {@link JdbcValidationStatisticsEvent} enabled
+   */
+  static boolean isValidationStatisticsEnabled() {
+    return validationStatisticsEnabled;
+  }
+
+  /**
+   * The epoch of the {@link JdbcQueryTextEvent} dictionary, changes with
+   * every new chunk so that every chunk contains all the query strings it
+   * references.
+   *
+   * @return the current epoch, {@code 0} if the query strings should be
+   *         recorded in the events
+   */
+  static int getQueryTextEpoch() {
+    return queryTextEpoch;
+  }
+
+  @Override
+  public void recorderInitialized(FlightRecorder recorder) {
+    update(recorder);
+  }
+
+  @Override
+  public void recordingStateChanged(Recording recording) {
+    update(FlightRecorder.getFlightRecorder());
+  }
+
+  private static synchronized void update(FlightRecorder recorder) {
+    if (eventTypes == null) {
+      // only look up the event types once the recorder is initialized
+      statisticsEventType = EventType.getEventType(JdbcStatementStatisticsEvent.class);
+      transactionEventType = EventType.getEventType(JdbcTransactionEvent.class);
+      queryTextEventType = EventType.getEventType(JdbcQueryTextEvent.class);
+      explainPlanEventType = EventType.getEventType(JdbcExplainPlanEvent.class);
+      repeatedQueryEventType = EventType.getEventType(JdbcRepeatedQueryEvent.class);
+      validationStatisticsEventType = EventType.getEventType(JdbcValidationStatisticsEvent.class);
+      eventTypes = List.of(
+              statisticsEventType,
+              transactionEventType,
+              explainPlanEventType,
+              repeatedQueryEventType,
+              validationStatisticsEventType,
+              EventType.getEventType(JdbcOperationEvent.class),
+              EventType.getEventType(JdbcCallEvent.class),
+              EventType.getEventType(JdbcSavepointEvent.class),
+              EventType.getEventType(JdbcFetchEvent.class),
+              EventType.getEventType(JdbcLobEvent.class),
+              EventType.getEventType(JdbcFetchSizeEvent.class));
+      queryEventTypes = List.of(
+              EventType.getEventType(JdbcOperationEvent.class),
+              EventType.getEventType(JdbcCallEvent.class),
+              EventType.getEventType(JdbcFetchEvent.class),
+              EventType.getEventType(JdbcLobEvent.class),
+              EventType.getEventType(JdbcFetchSizeEvent.class));
+    }
+    boolean enabled = false;
+    for (EventType eventType : eventTypes) {
+      // only true if there is at least one running recording
+      if (eventType.isEnabled()) {
+        enabled = true;
+        break;
+      }
+    }
+    active = enabled;
+    statisticsEnabled = statisticsEventType.isEnabled();
+    transactionEnabled = transactionEventType.isEnabled();
+    explainEnabled = explainPlanEventType.isEnabled();
+    repeatedQueryEnabled = repeatedQueryEventType.isEnabled();
+    validationStatisticsEnabled = validationStatisticsEventType.isEnabled();
+    if (queryTextEventType.isEnabled() && isQueryTextEnabledInAllRecordings(recorder)) {
+      // may be a new chunk
+      nextQueryTextEpoch();
+    } else {
+      queryTextEpoch = 0;
+    }
+  }
+
+  /**
+   * Whether every running recording that records query strings also has
+   * {@link JdbcQueryTextEvent} enabled. Otherwise the dictionary mode would
+   * remove the query strings from a recording that does not expect it.
+   */
+  // called with the class lock held
+  private static boolean isQueryTextEnabledInAllRecordings(FlightRecorder recorder) {
+    for (Recording recording : recorder.getRecordings()) {
+      if (recording.getState() != RecordingState.RUNNING) {
+        continue;
+      }
+      Map<String, String> settings = recording.getSettings();
+      if (!isEnabled(settings, queryTextEventType)) {
+        for (EventType eventType : queryEventTypes) {
+          if (isEnabled(settings, eventType)) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isEnabled(Map<String, String> settings, EventType eventType) {
+    // .jfc files use the name, Recording#enable(Class) the id
+    String enabled = settings.get(eventType.getName() + "#enabled");
+    if (enabled == null) {
+      enabled = settings.get(eventType.getId() + "#enabled");
+    }
+    if (enabled == null) {
+      enabled = defaultValue(eventType, "enabled");
+    }
+    return Boolean.parseBoolean(enabled);
+  }
+
+  private static String defaultValue(EventType eventType, String settingName) {
+    for (SettingDescriptor descriptor : eventType.getSettingDescriptors()) {
+      if (descriptor.getName().equals(settingName)) {
+        return descriptor.getDefaultValue();
+      }
+    }
+    return null;
+  }
+
+  private static synchronized void newChunk() {
+    if (queryTextEpoch != 0) {
+      nextQueryTextEpoch();
+    }
+  }
+
+  // called with the class lock held
+  private static void nextQueryTextEpoch() {
+    int epoch = lastQueryTextEpoch + 1;
+    if (epoch == 0) {
+      // 0 means disabled
+      epoch = 1;
+    }
+    lastQueryTextEpoch = epoch;
+    queryTextEpoch = epoch;
+  }
+
+}
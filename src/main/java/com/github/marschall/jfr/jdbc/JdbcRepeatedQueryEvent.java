@@ -0,0 +1,56 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A fingerprint that was executed repeatedly within a scope, a typical
+ * sign of the N+1 query problem.
+ */
+@Label("JDBC Repeated Query")
+@Description("A SQL fingerprint executed at least repeat threshold times within a transaction or request")
+@Category("JDBC")
+@StackTrace(false)
+class JdbcRepeatedQueryEvent extends Event {
+
+  JdbcRepeatedQueryEvent() {
+    super();
+  }
+
+  @Label("Fingerprint")
+  @Description("The SQL query string with literals replaced, to group similar queries")
+  String fingerprint;
+
+  @Label("Fingerprint Hash")
+  @Description("The 64 bit hash of the fingerprint")
+  long fingerprintHash;
+
+  @Label("Execution Count")
+  @Description("The number of executions within the scope")
+  long executionCount;
+
+  @Label("Total Time")
+  @Description("The total execution time within the scope")
+  @Timespan
+  long totalTime;
+
+  @Label("Scope End")
+  @Description("The operation ending the scope, eg. commit or endRequest")
+  String scopeEnd;
+
+  @Label("Repeat Threshold")
+  @Description("The number of executions of a fingerprint within a scope to be reported")
+  @Name("repeatThreshold")
+  @SettingDefinition
+  protected boolean repeatThreshold(RepeatThresholdSetting setting) {
+    // the decision is made in RepeatedQueryDetector
+    return true;
+  }
+
+}
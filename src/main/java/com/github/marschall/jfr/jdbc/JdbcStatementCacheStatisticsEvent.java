@@ -0,0 +1,33 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+@Label("JDBC Statement Cache Statistics")
+@Description("The hits, misses and evictions of the prepared statement cache since the previous event")
+@Category("JDBC")
+@Period("60 s")
+@StackTrace(false)
+class JdbcStatementCacheStatisticsEvent extends Event {
+
+  JdbcStatementCacheStatisticsEvent() {
+    super();
+  }
+
+  @Label("Hits")
+  @Description("The number of prepareStatement calls that reused a cached statement")
+  long hits;
+
+  @Label("Misses")
+  @Description("The number of prepareStatement calls that prepared a new statement")
+  long misses;
+
+  @Label("Evictions")
+  @Description("The number of statements closed because the cache was full")
+  long evictions;
+
+}
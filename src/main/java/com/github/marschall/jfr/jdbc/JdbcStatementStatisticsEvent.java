@@ -0,0 +1,59 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Label("JDBC Statement Statistics")
+@Description("The execution latency distribution of a SQL fingerprint since the previous event")
+@Category("JDBC")
+@Period("60 s")
+@StackTrace(false)
+class JdbcStatementStatisticsEvent extends Event {
+
+  JdbcStatementStatisticsEvent() {
+    super();
+  }
+
+  @Label("Fingerprint")
+  @Description("The SQL query string with literals replaced, to group similar queries")
+  String fingerprint;
+
+  @Label("Fingerprint Hash")
+  @Description("The 64 bit hash of the fingerprint")
+  long fingerprintHash;
+
+  @Label("Execution Count")
+  @Description("The number of executions")
+  long executionCount;
+
+  @Label("Total Time")
+  @Description("The total time spent executing")
+  @Timespan
+  long totalTime;
+
+  @Label("50th Percentile")
+  @Description("The median execution time")
+  @Timespan
+  long p50;
+
+  @Label("90th Percentile")
+  @Description("The 90th percentile of the execution time")
+  @Timespan
+  long p90;
+
+  @Label("99th Percentile")
+  @Description("The 99th percentile of the execution time")
+  @Timespan
+  long p99;
+
+  @Label("Max Time")
+  @Description("The longest execution time")
+  @Timespan
+  long maxTime;
+
+}
@@ -0,0 +1,44 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Timespan;
+
+@Label("JDBC Transaction")
+@Description("A JDBC transaction from the first statement to the end of the transaction")
+@Category("JDBC")
+class JdbcTransactionEvent extends Event {
+
+  JdbcTransactionEvent() {
+    super();
+  }
+
+  @Label("Statement Count")
+  @Description("The number of statements executed in the transaction")
+  long statementCount;
+
+  @Label("Row Count")
+  @Description("The number of rows updated in the transaction")
+  long rowCount;
+
+  @Label("Statement Time")
+  @Description("The time spent executing statements, the remainder of the duration the transaction was idle")
+  @Timespan
+  long statementTime;
+
+  @Label("Isolation Level")
+  @Description("The transaction isolation level")
+  String isolationLevel;
+
+  @Label("Outcome")
+  @Description("How the transaction ended, commit, commitFailed, rollback, rollbackFailed, autoCommit or close")
+  String outcome;
+
+  @Label("Commit Time")
+  @Description("The time spent in the operation ending the transaction")
+  @Timespan
+  long commitTime;
+
+}
@@ -0,0 +1,42 @@
+package com.github.marschall.jfr.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Label("JDBC Validation Statistics")
+@Description("The Connection.isValid() calls since the previous event, replaces the individual isValid() operations")
+@Category("JDBC")
+@Enabled(false)
+@Period("60 s")
+@StackTrace(false)
+class JdbcValidationStatisticsEvent extends Event {
+
+  JdbcValidationStatisticsEvent() {
+    super();
+  }
+
+  @Label("Validation Count")
+  @Description("The number of isValid() calls")
+  long validationCount;
+
+  @Label("Invalid Count")
+  @Description("The number of isValid() calls that returned false or failed")
+  long invalidCount;
+
+  @Label("Total Time")
+  @Description("The total time spent in isValid()")
+  @Timespan
+  long totalTime;
+
+  @Label("Max Time")
+  @Description("The longest time spent in a single isValid()")
+  @Timespan
+  long maxTime;
+
+}
@@ -0,0 +1,102 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Counts the bytes read from a {@link Blob}, the {@link JdbcLobEvent} is
+ * generated by {@link #free()}.
+ */
+final class JfrBlob implements Blob {
+
+  final Blob delegate;
+
+  private final LobTracker tracker;
+
+  JfrBlob(Blob delegate, LobTracker tracker) {
+    Objects.requireNonNull(delegate, "delegate");
+    Objects.requireNonNull(tracker, "tracker");
+    this.delegate = delegate;
+    this.tracker = tracker;
+  }
+
+  /**
+   * Unwraps a {@link Blob} returned by a {@link JfrResultSet} before it is
+   * passed to the driver, drivers may cast to their own class.
+   *
+   * @param blob the blob, possibly {@code null}
+   * @return the blob of the driver
+   */
+  static Blob unwrap(Blob blob) {
+    if (blob instanceof JfrBlob) {
+      return ((JfrBlob) blob).delegate;
+    }
+    return blob;
+  }
+
+  @Override
+  public long length() throws SQLException {
+    return this.delegate.length();
+  }
+
+  @Override
+  public byte[] getBytes(long pos, int length) throws SQLException {
+    long start = System.nanoTime();
+    byte[] bytes = this.delegate.getBytes(pos, length);
+    this.tracker.bytesRead(bytes != null ? bytes.length : 0, System.nanoTime() - start);
+    return bytes;
+  }
+
+  @Override
+  public InputStream getBinaryStream() throws SQLException {
+    return new CountingInputStream(this.delegate.getBinaryStream(), this.tracker, false);
+  }
+
+  @Override
+  public InputStream getBinaryStream(long pos, long length) throws SQLException {
+    return new CountingInputStream(this.delegate.getBinaryStream(pos, length), this.tracker, false);
+  }
+
+  @Override
+  public long position(byte[] pattern, long start) throws SQLException {
+    return this.delegate.position(pattern, start);
+  }
+
+  @Override
+  public long position(Blob pattern, long start) throws SQLException {
+    return this.delegate.position(unwrap(pattern), start);
+  }
+
+  @Override
+  public int setBytes(long pos, byte[] bytes) throws SQLException {
+    return this.delegate.setBytes(pos, bytes);
+  }
+
+  @Override
+  public int setBytes(long pos, byte[] bytes, int offset, int len) throws SQLException {
+    return this.delegate.setBytes(pos, bytes, offset, len);
+  }
+
+  @Override
+  public OutputStream setBinaryStream(long pos) throws SQLException {
+    return this.delegate.setBinaryStream(pos);
+  }
+
+  @Override
+  public void truncate(long len) throws SQLException {
+    this.delegate.truncate(len);
+  }
+
+  @Override
+  public void free() throws SQLException {
+    try {
+      this.delegate.free();
+    } finally {
+      this.tracker.complete();
+    }
+  }
+
+}
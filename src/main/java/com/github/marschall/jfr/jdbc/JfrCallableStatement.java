@@ -8,7 +8,6 @@ import java.sql.Array;
 import java.sql.Blob;
 import java.sql.CallableStatement;
 import java.sql.Clob;
-import java.sql.Connection;
 import java.sql.Date;
 import java.sql.NClob;
 import java.sql.Ref;
@@ -27,32 +26,38 @@ final class JfrCallableStatement extends JfrPreparedStatement implements Callabl
 
   private final CallableStatement delegate;
 
-  JfrCallableStatement(Connection parent, CallableStatement delegate, JdbcCallEvent callEvent) {
-    super(parent, delegate, callEvent);
+  JfrCallableStatement(JfrConnection parent, CallableStatement delegate, QueryInfo queryInfo, JdbcCallEvent callEvent) {
+    super(parent, delegate, queryInfo, callEvent);
     Objects.requireNonNull(delegate, "delegate");
     Objects.requireNonNull(callEvent, "callEvent");
     this.delegate = delegate;
   }
 
   private JdbcOperationEvent newOperationEvent(String operationName) {
+    if (!EventSampler.sample(this.queryInfo)) {
+      return JdbcOperationEvent.sampledOut();
+    }
     var event = new JdbcOperationEvent();
     event.operationObject = "CallableStatement";
     event.operationName = operationName;
-    event.query = this.callEvent.query;
+    event.setQuery(this.queryInfo);
     event.objectId = this.objectId;
+    if (this.parent.callerAttribution != null) {
+      this.parent.callerAttribution.attribute(event, this.queryInfo);
+    }
     return event;
   }
   
   @Override
   public ResultSet getResultSet() throws SQLException {
+    this.adaptFetchSize(this.queryInfo);
     var event = this.newOperationEvent("executeQuery");
     event.begin();
 
     try {
       return new JfrCallResultSet(this, this.delegate.executeQuery(), this.callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
@@ -299,17 +304,17 @@ final class JfrCallableStatement extends JfrPreparedStatement implements Callabl
 
   @Override
   public void setObject(String parameterName, Object x, int targetSqlType, int scale) throws SQLException {
-    this.delegate.setObject(parameterName, x, targetSqlType, scale);
+    this.delegate.setObject(parameterName, JfrNClob.unwrapObject(x), targetSqlType, scale);
   }
 
   @Override
   public void setObject(String parameterName, Object x, int targetSqlType) throws SQLException {
-    this.delegate.setObject(parameterName, x, targetSqlType);
+    this.delegate.setObject(parameterName, JfrNClob.unwrapObject(x), targetSqlType);
   }
 
   @Override
   public void setObject(String parameterName, Object x) throws SQLException {
-    this.delegate.setObject(parameterName, x);
+    this.delegate.setObject(parameterName, JfrNClob.unwrapObject(x));
   }
 
   @Override
@@ -479,7 +484,7 @@ final class JfrCallableStatement extends JfrPreparedStatement implements Callabl
 
   @Override
   public void setNClob(String parameterName, NClob value) throws SQLException {
-    this.delegate.setNClob(parameterName, value);
+    this.delegate.setNClob(parameterName, JfrNClob.unwrap(value));
   }
 
   @Override
@@ -554,12 +559,12 @@ final class JfrCallableStatement extends JfrPreparedStatement implements Callabl
 
   @Override
   public void setBlob(String parameterName, Blob x) throws SQLException {
-    this.delegate.setBlob(parameterName, x);
+    this.delegate.setBlob(parameterName, JfrBlob.unwrap(x));
   }
 
   @Override
   public void setClob(String parameterName, Clob x) throws SQLException {
-    this.delegate.setClob(parameterName, x);
+    this.delegate.setClob(parameterName, JfrClob.unwrap(x));
   }
 
   @Override
@@ -624,12 +629,12 @@ final class JfrCallableStatement extends JfrPreparedStatement implements Callabl
 
   @Override
   public void setObject(String parameterName, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
-    this.delegate.setObject(parameterName, x, targetSqlType, scaleOrLength);
+    this.delegate.setObject(parameterName, JfrNClob.unwrapObject(x), targetSqlType, scaleOrLength);
   }
 
   @Override
   public void setObject(String parameterName, Object x, SQLType targetSqlType) throws SQLException {
-    this.delegate.setObject(parameterName, x, targetSqlType);
+    this.delegate.setObject(parameterName, JfrNClob.unwrapObject(x), targetSqlType);
   }
 
   @Override
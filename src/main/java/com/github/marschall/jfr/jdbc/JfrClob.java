@@ -0,0 +1,114 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Counts the characters and bytes read from a {@link Clob}, the
+ * {@link JdbcLobEvent} is generated by {@link #free()}.
+ */
+class JfrClob implements Clob {
+
+  final Clob delegate;
+
+  private final LobTracker tracker;
+
+  JfrClob(Clob delegate, LobTracker tracker) {
+    Objects.requireNonNull(delegate, "delegate");
+    Objects.requireNonNull(tracker, "tracker");
+    this.delegate = delegate;
+    this.tracker = tracker;
+  }
+
+  /**
+   * Unwraps a {@link Clob} returned by a {@link JfrResultSet} before it is
+   * passed to the driver, drivers may cast to their own class.
+   *
+   * @param clob the clob, possibly {@code null}
+   * @return the clob of the driver
+   */
+  static Clob unwrap(Clob clob) {
+    if (clob instanceof JfrClob) {
+      return ((JfrClob) clob).delegate;
+    }
+    return clob;
+  }
+
+  @Override
+  public long length() throws SQLException {
+    return this.delegate.length();
+  }
+
+  @Override
+  public String getSubString(long pos, int length) throws SQLException {
+    long start = System.nanoTime();
+    String subString = this.delegate.getSubString(pos, length);
+    this.tracker.charactersRead(subString != null ? subString.length() : 0, System.nanoTime() - start);
+    return subString;
+  }
+
+  @Override
+  public Reader getCharacterStream() throws SQLException {
+    return new CountingReader(this.delegate.getCharacterStream(), this.tracker, false);
+  }
+
+  @Override
+  public Reader getCharacterStream(long pos, long length) throws SQLException {
+    return new CountingReader(this.delegate.getCharacterStream(pos, length), this.tracker, false);
+  }
+
+  @Override
+  public InputStream getAsciiStream() throws SQLException {
+    return new CountingInputStream(this.delegate.getAsciiStream(), this.tracker, false);
+  }
+
+  @Override
+  public long position(String searchstr, long start) throws SQLException {
+    return this.delegate.position(searchstr, start);
+  }
+
+  @Override
+  public long position(Clob searchstr, long start) throws SQLException {
+    return this.delegate.position(unwrap(searchstr), start);
+  }
+
+  @Override
+  public int setString(long pos, String str) throws SQLException {
+    return this.delegate.setString(pos, str);
+  }
+
+  @Override
+  public int setString(long pos, String str, int offset, int len) throws SQLException {
+    return this.delegate.setString(pos, str, offset, len);
+  }
+
+  @Override
+  public OutputStream setAsciiStream(long pos) throws SQLException {
+    return this.delegate.setAsciiStream(pos);
+  }
+
+  @Override
+  public Writer setCharacterStream(long pos) throws SQLException {
+    return this.delegate.setCharacterStream(pos);
+  }
+
+  @Override
+  public void truncate(long len) throws SQLException {
+    this.delegate.truncate(len);
+  }
+
+  @Override
+  public void free() throws SQLException {
+    try {
+      this.delegate.free();
+    } finally {
+      this.tracker.complete();
+    }
+  }
+
+}
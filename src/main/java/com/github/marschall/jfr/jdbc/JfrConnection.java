@@ -23,34 +23,130 @@ import java.util.concurrent.Executor;
 
 final class JfrConnection implements Connection {
 
+  private static final int AUTO_COMMIT_UNKNOWN = -1;
+
+  private static final int AUTO_COMMIT_OFF = 0;
+
+  private static final int AUTO_COMMIT_ON = 1;
+
+  private static final int ISOLATION_UNKNOWN = -1;
+
   private final Connection delegate;
 
+  private final long objectId;
+
+  /**
+   * Captures the plans of slow calls, {@code null} if not supported.
+   */
+  final ExplainPlanCollector explainPlanCollector;
+
+  /**
+   * The transaction in progress, {@code null} if there is none or
+   * transactions are not tracked.
+   */
+  private JdbcTransactionEvent transactionEvent;
+
+  /**
+   * Created on the first execution while {@link JdbcRepeatedQueryEvent}
+   * is enabled.
+   */
+  private RepeatedQueryDetector repeatedQueryDetector;
+
+  /**
+   * Whether {@link #beginRequest()} has been called without a matching
+   * {@link #endRequest()}.
+   */
+  private boolean inRequest;
+
+  /**
+   * Whether {@value StatementCache#SIZE_PROPERTY} is set.
+   */
+  private final boolean statementCacheEnabled;
+
+  /**
+   * The cache of this connection, created on first use.
+   */
+  private StatementCache statementCache;
+
+  /**
+   * {@code null} unless enabled with {@value AdaptiveFetchSize#PROPERTY}.
+   */
+  final AdaptiveFetchSize adaptiveFetchSize;
+
+  /**
+   * {@code null} unless enabled with {@value CallerAttribution#PROPERTY}.
+   */
+  final CallerAttribution callerAttribution;
+
+  private int autoCommit;
+
+  private int transactionIsolation;
+
   JfrConnection(Connection delegate) {
+    this(delegate, null);
+  }
+
+  JfrConnection(Connection delegate, ExplainPlanCollector explainPlanCollector) {
     Objects.requireNonNull(delegate, "delegate");
     this.delegate = delegate;
+    this.explainPlanCollector = explainPlanCollector;
+    this.objectId = ObjectIdGenerator.nextId();
+    this.statementCacheEnabled = StatementCache.isEnabled();
+    this.adaptiveFetchSize = AdaptiveFetchSize.newInstanceIfEnabled();
+    this.callerAttribution = CallerAttribution.newInstanceIfEnabled();
+    this.autoCommit = AUTO_COMMIT_UNKNOWN;
+    this.transactionIsolation = ISOLATION_UNKNOWN;
   }
 
-  private static JdbcOperationEvent newCreateStatementEvent() {
-    return newConnectionEvent("createStatement");
+  private JdbcOperationEvent newCreateStatementEvent() {
+    return this.newConnectionEvent("createStatement");
   }
 
-  private static JdbcOperationEvent newPrepareStatementEvent(String sql) {
-    return newConnectionEvent("prepareStatement", sql);
+  private JdbcOperationEvent newPrepareStatementEvent(QueryInfo queryInfo, JdbcCallEvent callEvent) {
+    return this.newStatementCreationEvent("prepareStatement", queryInfo, callEvent);
   }
 
-  private static JdbcOperationEvent newPrepareCallEvent(String sql) {
-    return newConnectionEvent("prepareCall", sql);
+  private JdbcOperationEvent newPrepareCallEvent(QueryInfo queryInfo, JdbcCallEvent callEvent) {
+    return this.newStatementCreationEvent("prepareCall", queryInfo, callEvent);
   }
   
-  private static JdbcOperationEvent newConnectionEvent(String operationName) {
-    return newConnectionEvent(operationName, null);
+  private JdbcOperationEvent newConnectionEvent(String operationName) {
+    if (!EventSampler.sample()) {
+      return JdbcOperationEvent.sampledOut();
+    }
+    return this.newUnsampledConnectionEvent(operationName);
   }
 
-  private static JdbcOperationEvent newConnectionEvent(String operationName, String sql) {
+  private JdbcOperationEvent newUnsampledConnectionEvent(String operationName) {
     var event = new JdbcOperationEvent();
     event.operationObject = "Connection";
     event.operationName = operationName;
-    event.query = sql;
+    event.objectId = this.objectId;
+    return event;
+  }
+
+  private JdbcOperationEvent newConnectionEvent(String operationName, QueryInfo queryInfo) {
+    if (!EventSampler.sample(queryInfo)) {
+      return JdbcOperationEvent.sampledOut();
+    }
+    var event = this.newUnsampledConnectionEvent(operationName);
+    event.setQuery(queryInfo);
+    if (this.callerAttribution != null) {
+      this.callerAttribution.attribute(event, queryInfo);
+    }
+    return event;
+  }
+
+  private JdbcOperationEvent newStatementCreationEvent(String operationName, QueryInfo queryInfo, JdbcCallEvent callEvent) {
+    if (!EventSampler.sample(queryInfo)) {
+      return JdbcOperationEvent.sampledOut();
+    }
+    var event = this.newUnsampledConnectionEvent(operationName);
+    event.setQuery(queryInfo);
+    if (this.callerAttribution != null) {
+      // the stack is the same as for the call
+      this.callerAttribution.attribute(event, callEvent, queryInfo);
+    }
     return event;
   }
 
@@ -65,6 +161,112 @@ final class JfrConnection implements Connection {
     return safepointEvent;
   }
 
+  private static String isolationLevelName(int level) {
+    switch (level) {
+      case TRANSACTION_NONE:
+        return "NONE";
+      case TRANSACTION_READ_UNCOMMITTED:
+        return "READ_UNCOMMITTED";
+      case TRANSACTION_READ_COMMITTED:
+        return "READ_COMMITTED";
+      case TRANSACTION_REPEATABLE_READ:
+        return "REPEATABLE_READ";
+      case TRANSACTION_SERIALIZABLE:
+        return "SERIALIZABLE";
+      default:
+        return Integer.toString(level);
+    }
+  }
+
+  private boolean isAutoCommit() throws SQLException {
+    if (this.autoCommit == AUTO_COMMIT_UNKNOWN) {
+      // the connection may have been configured before it was wrapped
+      this.autoCommit = this.delegate.getAutoCommit() ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+    }
+    return this.autoCommit == AUTO_COMMIT_ON;
+  }
+
+  private String getIsolationLevelName() throws SQLException {
+    if (this.transactionIsolation == ISOLATION_UNKNOWN) {
+      this.transactionIsolation = this.delegate.getTransactionIsolation();
+    }
+    return isolationLevelName(this.transactionIsolation);
+  }
+
+  /**
+   * Called by statements before a statement is executed, starts a
+   * transaction if none is in progress.
+   */
+  void statementStarting() throws SQLException {
+    if ((this.autoCommit == AUTO_COMMIT_UNKNOWN) && JdbcRecordingState.isRepeatedQueryEnabled()) {
+      // needed in #statementExecuted to end the scope
+      this.isAutoCommit();
+    }
+    if (this.transactionEvent == null
+            && JdbcRecordingState.isTransactionEnabled()
+            && !this.isAutoCommit()) {
+      var event = new JdbcTransactionEvent();
+      event.isolationLevel = this.getIsolationLevelName();
+      event.begin();
+      this.transactionEvent = event;
+    }
+  }
+
+  /**
+   * Called by statements after a statement has been executed.
+   *
+   * @param queryInfo the executed query
+   * @param duration the time spent executing the statement in nanoseconds
+   */
+  void statementExecuted(QueryInfo queryInfo, long duration) {
+    var event = this.transactionEvent;
+    if (event != null) {
+      event.statementCount += 1L;
+      event.statementTime += duration;
+    }
+    if (JdbcRecordingState.isRepeatedQueryEnabled()) {
+      if (this.repeatedQueryDetector == null) {
+        this.repeatedQueryDetector = new RepeatedQueryDetector();
+      }
+      this.repeatedQueryDetector.executed(queryInfo, duration);
+      if ((this.autoCommit == AUTO_COMMIT_ON) && !this.inRequest) {
+        // in auto-commit mode every statement is a transaction
+        this.repeatedQueryDetector.endScope("statement");
+      }
+    }
+  }
+
+  /**
+   * Called by statements after a statement has updated rows.
+   *
+   * @param rowCount the number of rows updated
+   */
+  void rowsAffected(long rowCount) {
+    var event = this.transactionEvent;
+    if (event != null && rowCount > 0L) {
+      event.rowCount += rowCount;
+    }
+  }
+
+  private void endTransaction(String outcome, long commitTime) {
+    this.endScope(outcome);
+    var event = this.transactionEvent;
+    if (event != null) {
+      event.end();
+      event.outcome = outcome;
+      event.commitTime = commitTime;
+      event.commit();
+      this.transactionEvent = null;
+    }
+  }
+
+  private void endScope(String scopeEnd) {
+    var detector = this.repeatedQueryDetector;
+    if (detector != null) {
+      detector.endScope(scopeEnd);
+    }
+  }
+
   @Override
   public <T> T unwrap(Class<T> iface) throws SQLException {
     return this.delegate.unwrap(iface);
@@ -77,7 +279,7 @@ final class JfrConnection implements Connection {
 
   @Override
   public Statement createStatement() throws SQLException {
-    var event = newCreateStatementEvent();
+    var event = this.newCreateStatementEvent();
     event.begin();
     try {
       var statement = this.delegate.createStatement();
@@ -90,7 +292,7 @@ final class JfrConnection implements Connection {
 
   @Override
   public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
-    var event = newCreateStatementEvent();
+    var event = this.newCreateStatementEvent();
     event.begin();
     try {
       var statement = this.delegate.createStatement(resultSetType, resultSetConcurrency);
@@ -103,7 +305,7 @@ final class JfrConnection implements Connection {
 
   @Override
   public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-    var event = newCreateStatementEvent();
+    var event = this.newCreateStatementEvent();
     event.begin();
     try {
       var statement = this.delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
@@ -114,165 +316,206 @@ final class JfrConnection implements Connection {
     }
   }
 
+  private JfrPreparedStatement prepareCached(StatementCache.Key key, StatementPreparer preparer,
+          QueryInfo queryInfo, JdbcCallEvent callEvent) throws SQLException {
+    var cache = this.statementCache;
+    if (cache == null) {
+      cache = new StatementCache();
+      this.statementCache = cache;
+    }
+    var entry = cache.acquire(key);
+    if (entry == null) {
+      entry = new StatementCache.Entry(key, preparer.prepare(this.delegate));
+    }
+    var statement = new JfrPreparedStatement(this, entry.statement, queryInfo, callEvent);
+    statement.statementCache = cache;
+    statement.cacheEntry = entry;
+    return statement;
+  }
+
   @Override
   public PreparedStatement prepareStatement(String sql) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareStatementEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareStatementEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
+      if (this.statementCacheEnabled) {
+        var key = new StatementCache.Key(sql, StatementCache.DEFAULT, StatementCache.DEFAULT, StatementCache.DEFAULT);
+        return this.prepareCached(key, connection -> connection.prepareStatement(sql), queryInfo, callEvent);
+      }
       var preparedStatement = this.delegate.prepareStatement(sql);
-      return new JfrPreparedStatement(this, preparedStatement, callEvent);
+      return new JfrPreparedStatement(this, preparedStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareStatementEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareStatementEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
+      if (this.statementCacheEnabled) {
+        var key = new StatementCache.Key(sql, resultSetType, resultSetConcurrency, StatementCache.DEFAULT);
+        return this.prepareCached(key, connection -> connection.prepareStatement(sql, resultSetType, resultSetConcurrency), queryInfo, callEvent);
+      }
       var preparedStatement = this.delegate.prepareStatement(sql, resultSetType, resultSetConcurrency);
-      return new JfrPreparedStatement(this, preparedStatement, callEvent);
+      return new JfrPreparedStatement(this, preparedStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareStatementEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareStatementEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
+      if (this.statementCacheEnabled) {
+        var key = new StatementCache.Key(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        return this.prepareCached(key, connection -> connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), queryInfo, callEvent);
+      }
       var preparedStatement = this.delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
-      return new JfrPreparedStatement(this, preparedStatement, callEvent);
+      return new JfrPreparedStatement(this, preparedStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareStatementEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareStatementEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
       var preparedStatement = this.delegate.prepareStatement(sql, autoGeneratedKeys);
-      return new JfrPreparedStatement(this, preparedStatement, callEvent);
+      return new JfrPreparedStatement(this, preparedStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareStatementEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareStatementEvent(queryInfo, callEvent);
 
     event.begin();
-    callEvent.begin();
+    callEvent.start();
     try {
       var preparedStatement = this.delegate.prepareStatement(sql, columnIndexes);
-      return new JfrPreparedStatement(this, preparedStatement, callEvent);
+      return new JfrPreparedStatement(this, preparedStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareStatementEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareStatementEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
       var preparedStatement = this.delegate.prepareStatement(sql, columnNames);
-      return new JfrPreparedStatement(this, preparedStatement, callEvent);
+      return new JfrPreparedStatement(this, preparedStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareCallEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareCallEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
       var callableStatement = this.delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
-      return new JfrCallableStatement(this, callableStatement, callEvent);
+      return new JfrCallableStatement(this, callableStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public CallableStatement prepareCall(String sql) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareCallEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareCallEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
       var callableStatement = this.delegate.prepareCall(sql);
-      return new JfrCallableStatement(this, callableStatement, callEvent);
+      return new JfrCallableStatement(this, callableStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var event = newPrepareCallEvent(sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this);
+    var event = this.newPrepareCallEvent(queryInfo, callEvent);
 
-    callEvent.begin();
+    callEvent.start();
     event.begin();
     try {
       var callableStatement = this.delegate.prepareCall(sql, resultSetType, resultSetConcurrency);
-      return new JfrCallableStatement(this, callableStatement, callEvent);
+      return new JfrCallableStatement(this, callableStatement, queryInfo, callEvent);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public String nativeSQL(String sql) throws SQLException {
-    var event = newConnectionEvent("nativeSQL", sql);
+    var event = this.newConnectionEvent("nativeSQL", QueryInfo.of(sql));
     event.begin();
     try {
       return this.delegate.nativeSQL(sql);
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public void setAutoCommit(boolean autoCommit) throws SQLException {
-    this.delegate.setAutoCommit(autoCommit);
+    var event = this.newConnectionEvent("setAutoCommit");
+    event.begin();
+    long start = System.nanoTime();
+    try {
+      this.delegate.setAutoCommit(autoCommit);
+      this.autoCommit = autoCommit ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+    } finally {
+      event.end();
+      event.commit();
+      if (autoCommit) {
+        // changing to auto commit commits the current transaction
+        this.endTransaction("autoCommit", System.nanoTime() - start);
+      }
+    }
   }
 
   @Override
@@ -282,17 +525,52 @@ final class JfrConnection implements Connection {
 
   @Override
   public void commit() throws SQLException {
-    this.delegate.commit();
+    var event = this.newConnectionEvent("commit");
+    event.begin();
+    long start = System.nanoTime();
+    String outcome = "commitFailed";
+    try {
+      this.delegate.commit();
+      outcome = "commit";
+    } finally {
+      event.end();
+      event.commit();
+      this.endTransaction(outcome, System.nanoTime() - start);
+    }
   }
 
   @Override
   public void rollback() throws SQLException {
-    this.delegate.rollback();
+    var event = this.newConnectionEvent("rollback");
+    event.begin();
+    long start = System.nanoTime();
+    String outcome = "rollbackFailed";
+    try {
+      this.delegate.rollback();
+      outcome = "rollback";
+    } finally {
+      event.end();
+      event.commit();
+      this.endTransaction(outcome, System.nanoTime() - start);
+    }
   }
 
   @Override
   public void close() throws SQLException {
-    this.delegate.close();
+    var event = this.newConnectionEvent("close");
+    event.begin();
+    long start = System.nanoTime();
+    try {
+      if (this.statementCache != null) {
+        this.statementCache.close();
+      }
+      this.delegate.close();
+    } finally {
+      event.end();
+      event.commit();
+      // what happens to the transaction depends on the driver
+      this.endTransaction("close", System.nanoTime() - start);
+    }
   }
 
   @Override
@@ -302,7 +580,7 @@ final class JfrConnection implements Connection {
 
   @Override
   public DatabaseMetaData getMetaData() throws SQLException {
-    var event = newConnectionEvent("getMetaData");
+    var event = this.newConnectionEvent("getMetaData");
     event.begin();
     try {
       return this.delegate.getMetaData();
@@ -335,6 +613,7 @@ final class JfrConnection implements Connection {
   @Override
   public void setTransactionIsolation(int level) throws SQLException {
     this.delegate.setTransactionIsolation(level);
+    this.transactionIsolation = level;
   }
 
   @Override
@@ -460,7 +739,10 @@ final class JfrConnection implements Connection {
 
   @Override
   public boolean isValid(int timeout) throws SQLException {
-    var event = newConnectionEvent("isValid");
+    if (JdbcRecordingState.isValidationStatisticsEnabled()) {
+      return this.aggregatedIsValid(timeout);
+    }
+    var event = this.newConnectionEvent("isValid");
     event.begin();
     try {
       return this.delegate.isValid(timeout);
@@ -470,6 +752,17 @@ final class JfrConnection implements Connection {
     }
   }
 
+  private boolean aggregatedIsValid(int timeout) throws SQLException {
+    long start = System.nanoTime();
+    boolean valid = false;
+    try {
+      valid = this.delegate.isValid(timeout);
+      return valid;
+    } finally {
+      ValidationStatistics.record(System.nanoTime() - start, valid);
+    }
+  }
+
   @Override
   public void setClientInfo(String name, String value) throws SQLClientInfoException {
     this.delegate.setClientInfo(name, value);
@@ -512,12 +805,26 @@ final class JfrConnection implements Connection {
 
   @Override
   public void abort(Executor executor) throws SQLException {
-    this.delegate.abort(executor);
+    var event = this.newConnectionEvent("abort");
+    event.begin();
+    try {
+      this.delegate.abort(executor);
+    } finally {
+      event.end();
+      event.commit();
+    }
   }
 
   @Override
   public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
-    this.delegate.setNetworkTimeout(executor, milliseconds);
+    var event = this.newConnectionEvent("setNetworkTimeout");
+    event.begin();
+    try {
+      this.delegate.setNetworkTimeout(executor, milliseconds);
+    } finally {
+      event.end();
+      event.commit();
+    }
   }
 
   @Override
@@ -528,11 +835,15 @@ final class JfrConnection implements Connection {
   @Override
   public void beginRequest() throws SQLException {
     this.delegate.beginRequest();
+    this.endScope("beginRequest");
+    this.inRequest = true;
   }
 
   @Override
   public void endRequest() throws SQLException {
     this.delegate.endRequest();
+    this.endScope("endRequest");
+    this.inRequest = false;
   }
 
   @Override
@@ -555,4 +866,11 @@ final class JfrConnection implements Connection {
     this.delegate.setShardingKey(shardingKey);
   }
 
+  @FunctionalInterface
+  interface StatementPreparer {
+
+    PreparedStatement prepare(Connection connection) throws SQLException;
+
+  }
+
 }
@@ -37,6 +37,9 @@ final class JfrConnectionBuilder implements ConnectionBuilder {
 
   @Override
   public Connection build() throws SQLException {
+    if (!JdbcRecordingState.isActive()) {
+      return this.delegate.build();
+    }
     var event = new JdbcOperationEvent();
     event.operationObject = "ConnectionBuilder";
     event.operationName = "build";
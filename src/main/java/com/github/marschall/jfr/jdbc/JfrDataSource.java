@@ -13,11 +13,19 @@ import javax.sql.DataSource;
 
 /**
  * A data source that wraps an other one and generates Flight Recorder events.
+ * <p>
+ * While there is no running recording with any of the JDBC events enabled
+ * the connections of the actual data source are returned unwrapped.
+ * <p>
+ * Execution plans are captured on a background thread that is started on
+ * demand, {@link #close()} stops it.
  */
-public final class JfrDataSource implements DataSource {
+public final class JfrDataSource implements DataSource, AutoCloseable {
 
   private final DataSource delegate;
 
+  private final ExplainPlanCollector explainPlanCollector;
+
   /**
    * Constructs a new JFR data source.
    * 
@@ -26,6 +34,7 @@ public final class JfrDataSource implements DataSource {
   public JfrDataSource(DataSource delegate) {
     Objects.requireNonNull(delegate, "delegate");
     this.delegate = delegate;
+    this.explainPlanCollector = new ExplainPlanCollector(delegate);
   }
 
   @Override
@@ -40,12 +49,15 @@ public final class JfrDataSource implements DataSource {
 
   @Override
   public Connection getConnection() throws SQLException {
+    if (!JdbcRecordingState.isActive()) {
+      return this.delegate.getConnection();
+    }
     var event = new JdbcOperationEvent();
     event.operationObject = "DataSource";
     event.operationName = "getConnection";
     try {
       var connection = this.delegate.getConnection();
-      return new JfrConnection(connection);
+      return new JfrConnection(connection, this.explainPlanCollector);
     } finally {
       event.end();
       event.commit();
@@ -54,12 +66,15 @@ public final class JfrDataSource implements DataSource {
 
   @Override
   public Connection getConnection(String username, String password) throws SQLException {
+    if (!JdbcRecordingState.isActive()) {
+      return this.delegate.getConnection(username, password);
+    }
     var event = new JdbcOperationEvent();
     event.operationObject = "DataSource";
     event.operationName = "getConnection";
     try {
       var connection = this.delegate.getConnection(username, password);
-      return new JfrConnection(connection);
+      return new JfrConnection(connection, this.explainPlanCollector);
     } finally {
       event.end();
       event.commit();
@@ -102,4 +117,13 @@ public final class JfrDataSource implements DataSource {
     return this.delegate.createShardingKeyBuilder();
   }
 
+  /**
+   * Stops the background thread capturing execution plans, afterwards no
+   * more plans are captured. Does not close the actual data source.
+   */
+  @Override
+  public void close() {
+    this.explainPlanCollector.close();
+  }
+
 }
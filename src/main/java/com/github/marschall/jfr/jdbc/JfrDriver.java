@@ -15,6 +15,9 @@ import java.util.logging.Logger;
  * To use the driver simply prepend "jfr:" to the JDBC connection URL
  * for which you want to generate JFR events. For example if you use
  * "jdbc:jfr:h2:mem:" you will get a connection for "jdbc:h2:mem:"
+ * <p>
+ * While there is no running recording with any of the JDBC events enabled
+ * the connections of the actual driver are returned unwrapped.
  */
 public final class JfrDriver implements Driver {
 
@@ -39,6 +42,9 @@ public final class JfrDriver implements Driver {
       throw new SQLException("invalid url: " + url);
     }
     String connectionString = "jdbc:" + url.substring(9);
+    if (!JdbcRecordingState.isActive()) {
+      return DriverManager.getConnection(connectionString, info);
+    }
     var event = new JdbcOperationEvent();
     event.operationObject = "Driver";
     event.operationName = "connect";
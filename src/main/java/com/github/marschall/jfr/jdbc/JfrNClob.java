@@ -0,0 +1,46 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.sql.NClob;
+
+/**
+ * Counts the characters and bytes read from a {@link NClob}.
+ */
+final class JfrNClob extends JfrClob implements NClob {
+
+  JfrNClob(NClob delegate, LobTracker tracker) {
+    super(delegate, tracker);
+  }
+
+  /**
+   * Unwraps a {@link NClob} returned by a {@link JfrResultSet} before it is
+   * passed to the driver, drivers may cast to their own class.
+   *
+   * @param nClob the nclob, possibly {@code null}
+   * @return the nclob of the driver
+   */
+  static NClob unwrap(NClob nClob) {
+    if (nClob instanceof JfrNClob) {
+      return (NClob) ((JfrNClob) nClob).delegate;
+    }
+    return nClob;
+  }
+
+  /**
+   * Unwraps a LOB returned by a {@link JfrResultSet} before it is passed to
+   * the driver as an object.
+   *
+   * @param value the object, possibly {@code null}
+   * @return the LOB of the driver if the object is a LOB wrapper, else the
+   *         object
+   */
+  static Object unwrapObject(Object value) {
+    if (value instanceof JfrClob) {
+      return ((JfrClob) value).delegate;
+    }
+    if (value instanceof JfrBlob) {
+      return ((JfrBlob) value).delegate;
+    }
+    return value;
+  }
+
+}
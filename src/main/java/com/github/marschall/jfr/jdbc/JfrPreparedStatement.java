@@ -7,7 +7,6 @@ import java.net.URL;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.Clob;
-import java.sql.Connection;
 import java.sql.Date;
 import java.sql.NClob;
 import java.sql.ParameterMetaData;
@@ -26,51 +25,114 @@ import java.util.Objects;
 
 class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
 
-  private final PreparedStatement delegate;
+  // replaced by ClosedStatement after a logical close
+  private PreparedStatement delegate;
+
+  final QueryInfo queryInfo;
 
   JdbcCallEvent callEvent;
 
   private boolean closed;
 
-  JfrPreparedStatement(Connection parent, PreparedStatement delegate, JdbcCallEvent callEvent) {
+  /**
+   * The cache to return the statement to on close, {@code null} if the
+   * statement is not cached.
+   */
+  StatementCache statementCache;
+
+  StatementCache.Entry cacheEntry;
+
+  JfrPreparedStatement(JfrConnection parent, PreparedStatement delegate, QueryInfo queryInfo, JdbcCallEvent callEvent) {
     super(parent, delegate);
     Objects.requireNonNull(delegate, "delegate");
+    Objects.requireNonNull(queryInfo, "queryInfo");
     Objects.requireNonNull(callEvent, "callEvent");
+    this.queryInfo = queryInfo;
     this.callEvent = callEvent;
     this.delegate = delegate;
     this.closed = false;
   }
 
   private JdbcOperationEvent newOperationEvent(String operationName) {
+    if (!EventSampler.sample(this.queryInfo)) {
+      return JdbcOperationEvent.sampledOut();
+    }
     var event = new JdbcOperationEvent();
     event.operationObject = "PreparedStatement";
     event.operationName = operationName;
-    event.query = this.callEvent.query;
+    event.setQuery(this.queryInfo);
     event.objectId = this.objectId;
+    if (this.parent.callerAttribution != null) {
+      this.parent.callerAttribution.attribute(event, this.queryInfo);
+    }
     return event;
   }
 
   @Override
   public void close() throws SQLException {
     if (!this.closed && !this.callEvent.closed) {
-      this.callEvent.end();
-      this.callEvent.commit();
-      this.callEvent.closed = true;
+      this.callEvent.complete();
       this.closed = true;
     }
-    this.delegate.close();
+    var entry = this.cacheEntry;
+    if (entry != null) {
+      this.cacheEntry = null;
+      this.detach();
+      if (this.reset(entry)) {
+        this.statementCache.release(entry);
+      } else {
+        entry.statement.close();
+      }
+    } else {
+      this.delegate.close();
+    }
+  }
+
+  /**
+   * Resets the state of a cached statement before it is put back into the
+   * cache.
+   *
+   * @return {@code false} if the statement could not be reset and should
+   *         not be reused
+   */
+  private boolean reset(StatementCache.Entry entry) {
+    if (this.notReusable) {
+      return false;
+    }
+    try {
+      entry.reset(this.batchSize > 0, this.attributesChanged);
+      return true;
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  @Override
+  void detach() {
+    super.detach();
+    this.delegate = ClosedStatement.INSTANCE;
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return this.delegate.isClosed();
   }
 
   @Override
   public ResultSet executeQuery() throws SQLException {
+    this.adaptFetchSize(this.queryInfo);
     var event = this.newOperationEvent("executeQuery");
     event.begin();
+    long start = this.startExecution();
 
     try {
       return new JfrCallResultSet(this, this.delegate.executeQuery(), this.callEvent);
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, this.callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(this.queryInfo, start);
+      event.complete();
     }
   }
 
@@ -78,12 +140,18 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
   public int executeUpdate() throws SQLException {
     var event = this.newOperationEvent("executeUpdate");
     event.begin();
+    long start = this.startExecution();
 
     try {
-      return this.delegate.executeUpdate();
+      int rowCount = this.delegate.executeUpdate();
+      this.rowsUpdated(this.callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, this.callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(this.queryInfo, start);
+      event.complete();
     }
   }
 
@@ -91,12 +159,20 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
   public boolean execute() throws SQLException {
     var event = this.newOperationEvent("execute");
     event.begin();
+    long start = this.startExecution();
 
     try {
-      return this.delegate.execute();
+      boolean isResultSet = this.delegate.execute();
+      if (!isResultSet) {
+        this.rowsUpdated(this.callEvent, this.delegate.getUpdateCount());
+      }
+      return isResultSet;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, this.callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(this.queryInfo, start);
+      event.complete();
     }
   }
 
@@ -104,12 +180,18 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
   public long executeLargeUpdate() throws SQLException {
     var event = this.newOperationEvent("executeLargeUpdate");
     event.begin();
+    long start = this.startExecution();
 
     try {
-      return this.delegate.executeLargeUpdate();
+      long rowCount = this.delegate.executeLargeUpdate();
+      this.rowsUpdated(this.callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, this.callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(this.queryInfo, start);
+      event.complete();
     }
   }
 
@@ -117,12 +199,19 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
   public int[] executeBatch() throws SQLException {
     var event = this.newOperationEvent("executeBatch");
     event.begin();
+    long start = this.startExecution();
 
     try {
-      return this.delegate.executeBatch();
+      int[] updateCounts = this.delegate.executeBatch();
+      this.batchExecuted(this.callEvent, sumUpdateCounts(updateCounts), countNoInfo(updateCounts));
+      return updateCounts;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, this.callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.batchSize = 0;
+      this.endExecution(this.queryInfo, start);
+      event.complete();
     }
   }
 
@@ -130,12 +219,19 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
   public long[] executeLargeBatch() throws SQLException {
     var event = this.newOperationEvent("executeLargeBatch");
     event.begin();
+    long start = this.startExecution();
 
     try {
-      return this.delegate.executeLargeBatch();
+      long[] updateCounts = this.delegate.executeLargeBatch();
+      this.batchExecuted(this.callEvent, sumUpdateCounts(updateCounts), countNoInfo(updateCounts));
+      return updateCounts;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, this.callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.batchSize = 0;
+      this.endExecution(this.queryInfo, start);
+      event.complete();
     }
   }
 
@@ -228,28 +324,28 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
   @Override
   public void clearParameters() throws SQLException {
     if (!this.closed && !this.callEvent.closed) {
-      this.callEvent.end();
-      this.callEvent.commit();
-      this.callEvent.closed = true;
+      this.callEvent.complete();
       
-      this.callEvent = new JdbcCallEvent(this.callEvent.query);
+      this.callEvent = new JdbcCallEvent(this.queryInfo, this.parent);
+      this.callEvent.start();
     }
     this.delegate.clearParameters();
   }
 
   @Override
   public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
-    this.delegate.setObject(parameterIndex, x, targetSqlType);
+    this.delegate.setObject(parameterIndex, JfrNClob.unwrapObject(x), targetSqlType);
   }
 
   @Override
   public void setObject(int parameterIndex, Object x) throws SQLException {
-    this.delegate.setObject(parameterIndex, x);
+    this.delegate.setObject(parameterIndex, JfrNClob.unwrapObject(x));
   }
 
   @Override
   public void addBatch() throws SQLException {
     this.delegate.addBatch();
+    this.batchSize += 1;
   }
 
   @Override
@@ -264,12 +360,12 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
 
   @Override
   public void setBlob(int parameterIndex, Blob x) throws SQLException {
-    this.delegate.setBlob(parameterIndex, x);
+    this.delegate.setBlob(parameterIndex, JfrBlob.unwrap(x));
   }
 
   @Override
   public void setClob(int parameterIndex, Clob x) throws SQLException {
-    this.delegate.setClob(parameterIndex, x);
+    this.delegate.setClob(parameterIndex, JfrClob.unwrap(x));
   }
 
   @Override
@@ -323,8 +419,7 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
     try {
       return this.delegate.getParameterMetaData();
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
@@ -345,7 +440,7 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
 
   @Override
   public void setNClob(int parameterIndex, NClob value) throws SQLException {
-    this.delegate.setNClob(parameterIndex, value);
+    this.delegate.setNClob(parameterIndex, JfrNClob.unwrap(value));
   }
 
   @Override
@@ -370,7 +465,7 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
 
   @Override
   public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
-    this.delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    this.delegate.setObject(parameterIndex, JfrNClob.unwrapObject(x), targetSqlType, scaleOrLength);
   }
 
   @Override
@@ -425,12 +520,12 @@ class JfrPreparedStatement extends JfrStatement implements PreparedStatement {
 
   @Override
   public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
-    this.delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    this.delegate.setObject(parameterIndex, JfrNClob.unwrapObject(x), targetSqlType, scaleOrLength);
   }
 
   @Override
   public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
-    this.delegate.setObject(parameterIndex, x, targetSqlType);
+    this.delegate.setObject(parameterIndex, JfrNClob.unwrapObject(x), targetSqlType);
   }
 
 }
@@ -27,20 +27,112 @@ import java.util.Objects;
 class JfrResultSet implements ResultSet {
 
   final ResultSet delegate;
-  private final Statement parent;
+  private final JfrStatement parent;
   private final long objectId;
   private boolean closed;
   private JdbcCallEvent callEvent;
   private long rowCount;
 
-
-  JfrResultSet(Statement parent, ResultSet delegate, JdbcCallEvent callEvent) {
+  /**
+   * {@code null} if the per row {@code next} operation events should be
+   * generated instead.
+   */
+  private JdbcFetchEvent fetchEvent;
+  private long fetchRowCount;
+  private long driverTime;
+  private long maxRowTime;
+
+  /**
+   * Whether {@link #fetchedBytes} should be estimated, see {@link FetchedBytes}.
+   */
+  private final boolean countFetchedBytes;
+  private long fetchedBytes;
+
+  JfrResultSet(JfrStatement parent, ResultSet delegate, JdbcCallEvent callEvent) {
     this.parent = parent;
     Objects.requireNonNull(delegate, "delegate");
     this.delegate = delegate;
     this.objectId = ObjectIdGenerator.nextId();
     this.callEvent = callEvent;
     this.closed = false;
+    this.countFetchedBytes = callEvent.isEnabled() && FetchedBytes.isEnabled();
+    var fetchEvent = new JdbcFetchEvent();
+    if (fetchEvent.isEnabled()) {
+      fetchEvent.begin();
+      this.fetchEvent = fetchEvent;
+    }
+  }
+
+  private <T> T fetched(T value) {
+    if (this.countFetchedBytes) {
+      this.fetchedBytes += FetchedBytes.estimate(value);
+    }
+    return value;
+  }
+
+  private void addFetchedBytes(long bytes) {
+    if (this.countFetchedBytes) {
+      this.fetchedBytes += bytes;
+    }
+  }
+
+  private LobTracker startLobTracker(String lobType) {
+    return LobTracker.start(lobType, this.callEvent, this.objectId);
+  }
+
+  private InputStream trackStream(InputStream stream, String lobType) {
+    if (stream == null) {
+      return null;
+    }
+    var tracker = this.startLobTracker(lobType);
+    if (tracker == null) {
+      return stream;
+    }
+    return new CountingInputStream(stream, tracker, true);
+  }
+
+  private Reader trackReader(Reader reader, String lobType) {
+    if (reader == null) {
+      return null;
+    }
+    var tracker = this.startLobTracker(lobType);
+    if (tracker == null) {
+      return reader;
+    }
+    return new CountingReader(reader, tracker, true);
+  }
+
+  private Blob trackBlob(Blob blob, String lobType) {
+    if (blob == null) {
+      return null;
+    }
+    var tracker = this.startLobTracker(lobType);
+    if (tracker == null) {
+      return blob;
+    }
+    return new JfrBlob(blob, tracker);
+  }
+
+  private Clob trackClob(Clob clob, String lobType) {
+    if (clob == null) {
+      return null;
+    }
+    var tracker = this.startLobTracker(lobType);
+    if (tracker == null) {
+      return clob;
+    }
+    return new JfrClob(clob, tracker);
+  }
+
+  private NClob trackNClob(NClob nClob, String lobType) {
+    if (nClob == null) {
+      return null;
+    }
+    var tracker = this.startLobTracker(lobType);
+    if (tracker == null) {
+      return nClob;
+    }
+    return new JfrNClob(nClob, tracker);
   }
 
   private JdbcOperationEvent newOperationEvent(String operationName) {
@@ -51,13 +143,36 @@ class JfrResultSet implements ResultSet {
     return event;
   }
 
+  private void commitFetchEvent() {
+    var event = this.fetchEvent;
+    event.end();
+    if (event.shouldCommit()) {
+      var queryInfo = this.callEvent.getQueryInfo();
+      if (queryInfo != null) {
+        event.query = queryInfo.recordedSql();
+        event.queryId = queryInfo.queryId;
+      } else {
+        event.query = this.callEvent.query;
+      }
+      event.rowCount = this.fetchRowCount;
+      event.driverTime = this.driverTime;
+      event.maxRowTime = this.maxRowTime;
+      event.objectId = this.objectId;
+      event.commit();
+    }
+    this.fetchEvent = null;
+  }
+
   @Override
   public void close() throws SQLException {
     if (!this.closed) {
+      if (this.fetchEvent != null) {
+        this.commitFetchEvent();
+      }
       this.callEvent.rowCount = this.rowCount;
-      this.callEvent.end();
-      this.callEvent.commit();
-      this.callEvent.closed = true;
+      this.callEvent.fetchedBytes = this.fetchedBytes;
+      this.callEvent.complete();
+      this.parent.resultSetClosed(this.callEvent, this.rowCount);
       this.callEvent = null;
       this.closed = true;
     }
@@ -76,6 +191,9 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public boolean next() throws SQLException {
+    if (this.fetchEvent != null) {
+      return this.aggregatedNext();
+    }
     var event = this.newOperationEvent("next");
     event.begin();
     try {
@@ -90,6 +208,22 @@ class JfrResultSet implements ResultSet {
     }
   }
 
+  private boolean aggregatedNext() throws SQLException {
+    // only primitive field updates, no allocation on the per row path
+    long start = System.nanoTime();
+    boolean next = this.delegate.next();
+    long rowTime = System.nanoTime() - start;
+    this.driverTime += rowTime;
+    if (rowTime > this.maxRowTime) {
+      this.maxRowTime = rowTime;
+    }
+    if (next) {
+      this.rowCount += 1;
+      this.fetchRowCount += 1;
+    }
+    return next;
+  }
+
   @Override
   public boolean wasNull() throws SQLException {
     return this.delegate.wasNull();
@@ -97,166 +231,194 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public String getString(int columnIndex) throws SQLException {
-    return this.delegate.getString(columnIndex);
+    return this.fetched(this.delegate.getString(columnIndex));
   }
 
   @Override
   public boolean getBoolean(int columnIndex) throws SQLException {
-    return this.delegate.getBoolean(columnIndex);
+    boolean value = this.delegate.getBoolean(columnIndex);
+    this.addFetchedBytes(Byte.BYTES);
+    return value;
   }
 
   @Override
   public byte getByte(int columnIndex) throws SQLException {
-    return this.delegate.getByte(columnIndex);
+    byte value = this.delegate.getByte(columnIndex);
+    this.addFetchedBytes(Byte.BYTES);
+    return value;
   }
 
   @Override
   public short getShort(int columnIndex) throws SQLException {
-    return this.delegate.getShort(columnIndex);
+    short value = this.delegate.getShort(columnIndex);
+    this.addFetchedBytes(Short.BYTES);
+    return value;
   }
 
   @Override
   public int getInt(int columnIndex) throws SQLException {
-    return this.delegate.getInt(columnIndex);
+    int value = this.delegate.getInt(columnIndex);
+    this.addFetchedBytes(Integer.BYTES);
+    return value;
   }
 
   @Override
   public long getLong(int columnIndex) throws SQLException {
-    return this.delegate.getLong(columnIndex);
+    long value = this.delegate.getLong(columnIndex);
+    this.addFetchedBytes(Long.BYTES);
+    return value;
   }
 
   @Override
   public float getFloat(int columnIndex) throws SQLException {
-    return this.delegate.getFloat(columnIndex);
+    float value = this.delegate.getFloat(columnIndex);
+    this.addFetchedBytes(Float.BYTES);
+    return value;
   }
 
   @Override
   public double getDouble(int columnIndex) throws SQLException {
-    return this.delegate.getDouble(columnIndex);
+    double value = this.delegate.getDouble(columnIndex);
+    this.addFetchedBytes(Double.BYTES);
+    return value;
   }
 
   @Override
   @Deprecated
   public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
-    return this.delegate.getBigDecimal(columnIndex, scale);
+    return this.fetched(this.delegate.getBigDecimal(columnIndex, scale));
   }
 
   @Override
   public byte[] getBytes(int columnIndex) throws SQLException {
-    return this.delegate.getBytes(columnIndex);
+    return this.fetched(this.delegate.getBytes(columnIndex));
   }
 
   @Override
   public Date getDate(int columnIndex) throws SQLException {
-    return this.delegate.getDate(columnIndex);
+    return this.fetched(this.delegate.getDate(columnIndex));
   }
 
   @Override
   public Time getTime(int columnIndex) throws SQLException {
-    return this.delegate.getTime(columnIndex);
+    return this.fetched(this.delegate.getTime(columnIndex));
   }
 
   @Override
   public Timestamp getTimestamp(int columnIndex) throws SQLException {
-    return this.delegate.getTimestamp(columnIndex);
+    return this.fetched(this.delegate.getTimestamp(columnIndex));
   }
 
   @Override
   public InputStream getAsciiStream(int columnIndex) throws SQLException {
-    return this.delegate.getAsciiStream(columnIndex);
+    return this.trackStream(this.delegate.getAsciiStream(columnIndex), "AsciiStream");
   }
 
   @Override
   @Deprecated
   public InputStream getUnicodeStream(int columnIndex) throws SQLException {
-    return this.delegate.getUnicodeStream(columnIndex);
+    return this.trackStream(this.delegate.getUnicodeStream(columnIndex), "UnicodeStream");
   }
 
   @Override
   public InputStream getBinaryStream(int columnIndex) throws SQLException {
-    return this.delegate.getBinaryStream(columnIndex);
+    return this.trackStream(this.delegate.getBinaryStream(columnIndex), "BinaryStream");
   }
 
   @Override
   public String getString(String columnLabel) throws SQLException {
-    return this.delegate.getString(columnLabel);
+    return this.fetched(this.delegate.getString(columnLabel));
   }
 
   @Override
   public boolean getBoolean(String columnLabel) throws SQLException {
-    return this.delegate.getBoolean(columnLabel);
+    boolean value = this.delegate.getBoolean(columnLabel);
+    this.addFetchedBytes(Byte.BYTES);
+    return value;
   }
 
   @Override
   public byte getByte(String columnLabel) throws SQLException {
-    return this.delegate.getByte(columnLabel);
+    byte value = this.delegate.getByte(columnLabel);
+    this.addFetchedBytes(Byte.BYTES);
+    return value;
   }
 
   @Override
   public short getShort(String columnLabel) throws SQLException {
-    return this.delegate.getShort(columnLabel);
+    short value = this.delegate.getShort(columnLabel);
+    this.addFetchedBytes(Short.BYTES);
+    return value;
   }
 
   @Override
   public int getInt(String columnLabel) throws SQLException {
-    return this.delegate.getInt(columnLabel);
+    int value = this.delegate.getInt(columnLabel);
+    this.addFetchedBytes(Integer.BYTES);
+    return value;
   }
 
   @Override
   public long getLong(String columnLabel) throws SQLException {
-    return this.delegate.getLong(columnLabel);
+    long value = this.delegate.getLong(columnLabel);
+    this.addFetchedBytes(Long.BYTES);
+    return value;
   }
 
   @Override
   public float getFloat(String columnLabel) throws SQLException {
-    return this.delegate.getFloat(columnLabel);
+    float value = this.delegate.getFloat(columnLabel);
+    this.addFetchedBytes(Float.BYTES);
+    return value;
   }
 
   @Override
   public double getDouble(String columnLabel) throws SQLException {
-    return this.delegate.getDouble(columnLabel);
+    double value = this.delegate.getDouble(columnLabel);
+    this.addFetchedBytes(Double.BYTES);
+    return value;
   }
 
   @Override
   @Deprecated
   public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
-    return this.delegate.getBigDecimal(columnLabel, scale);
+    return this.fetched(this.delegate.getBigDecimal(columnLabel, scale));
   }
 
   @Override
   public byte[] getBytes(String columnLabel) throws SQLException {
-    return this.delegate.getBytes(columnLabel);
+    return this.fetched(this.delegate.getBytes(columnLabel));
   }
 
   @Override
   public Date getDate(String columnLabel) throws SQLException {
-    return this.delegate.getDate(columnLabel);
+    return this.fetched(this.delegate.getDate(columnLabel));
   }
 
   @Override
   public Time getTime(String columnLabel) throws SQLException {
-    return this.delegate.getTime(columnLabel);
+    return this.fetched(this.delegate.getTime(columnLabel));
   }
 
   @Override
   public Timestamp getTimestamp(String columnLabel) throws SQLException {
-    return this.delegate.getTimestamp(columnLabel);
+    return this.fetched(this.delegate.getTimestamp(columnLabel));
   }
 
   @Override
   public InputStream getAsciiStream(String columnLabel) throws SQLException {
-    return this.delegate.getAsciiStream(columnLabel);
+    return this.trackStream(this.delegate.getAsciiStream(columnLabel), "AsciiStream");
   }
 
   @Override
   @Deprecated
   public InputStream getUnicodeStream(String columnLabel) throws SQLException {
-    return this.delegate.getUnicodeStream(columnLabel);
+    return this.trackStream(this.delegate.getUnicodeStream(columnLabel), "UnicodeStream");
   }
 
   @Override
   public InputStream getBinaryStream(String columnLabel) throws SQLException {
-    return this.delegate.getBinaryStream(columnLabel);
+    return this.trackStream(this.delegate.getBinaryStream(columnLabel), "BinaryStream");
   }
 
   @Override
@@ -288,12 +450,12 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public Object getObject(int columnIndex) throws SQLException {
-    return this.delegate.getObject(columnIndex);
+    return this.fetched(this.delegate.getObject(columnIndex));
   }
 
   @Override
   public Object getObject(String columnLabel) throws SQLException {
-    return this.delegate.getObject(columnLabel);
+    return this.fetched(this.delegate.getObject(columnLabel));
   }
 
   @Override
@@ -303,22 +465,22 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public Reader getCharacterStream(int columnIndex) throws SQLException {
-    return this.delegate.getCharacterStream(columnIndex);
+    return this.trackReader(this.delegate.getCharacterStream(columnIndex), "CharacterStream");
   }
 
   @Override
   public Reader getCharacterStream(String columnLabel) throws SQLException {
-    return this.delegate.getCharacterStream(columnLabel);
+    return this.trackReader(this.delegate.getCharacterStream(columnLabel), "CharacterStream");
   }
 
   @Override
   public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
-    return this.delegate.getBigDecimal(columnIndex);
+    return this.fetched(this.delegate.getBigDecimal(columnIndex));
   }
 
   @Override
   public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
-    return this.delegate.getBigDecimal(columnLabel);
+    return this.fetched(this.delegate.getBigDecimal(columnLabel));
   }
 
   @Override
@@ -533,12 +695,12 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
-    this.delegate.updateObject(columnIndex, x, scaleOrLength);
+    this.delegate.updateObject(columnIndex, JfrNClob.unwrapObject(x), scaleOrLength);
   }
 
   @Override
   public void updateObject(int columnIndex, Object x) throws SQLException {
-    this.delegate.updateObject(columnIndex, x);
+    this.delegate.updateObject(columnIndex, JfrNClob.unwrapObject(x));
   }
 
   @Override
@@ -628,12 +790,12 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
-    this.delegate.updateObject(columnLabel, x, scaleOrLength);
+    this.delegate.updateObject(columnLabel, JfrNClob.unwrapObject(x), scaleOrLength);
   }
 
   @Override
   public void updateObject(String columnLabel, Object x) throws SQLException {
-    this.delegate.updateObject(columnLabel, x);
+    this.delegate.updateObject(columnLabel, JfrNClob.unwrapObject(x));
   }
 
   @Override
@@ -685,7 +847,7 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
-    return this.delegate.getObject(columnIndex, map);
+    return this.fetched(this.delegate.getObject(columnIndex, map));
   }
 
   @Override
@@ -695,12 +857,12 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public Blob getBlob(int columnIndex) throws SQLException {
-    return this.delegate.getBlob(columnIndex);
+    return this.trackBlob(this.delegate.getBlob(columnIndex), "Blob");
   }
 
   @Override
   public Clob getClob(int columnIndex) throws SQLException {
-    return this.delegate.getClob(columnIndex);
+    return this.trackClob(this.delegate.getClob(columnIndex), "Clob");
   }
 
   @Override
@@ -710,7 +872,7 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
-    return this.delegate.getObject(columnLabel, map);
+    return this.fetched(this.delegate.getObject(columnLabel, map));
   }
 
   @Override
@@ -720,12 +882,12 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public Blob getBlob(String columnLabel) throws SQLException {
-    return this.delegate.getBlob(columnLabel);
+    return this.trackBlob(this.delegate.getBlob(columnLabel), "Blob");
   }
 
   @Override
   public Clob getClob(String columnLabel) throws SQLException {
-    return this.delegate.getClob(columnLabel);
+    return this.trackClob(this.delegate.getClob(columnLabel), "Clob");
   }
 
   @Override
@@ -735,32 +897,32 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public Date getDate(int columnIndex, Calendar cal) throws SQLException {
-    return this.delegate.getDate(columnIndex, cal);
+    return this.fetched(this.delegate.getDate(columnIndex, cal));
   }
 
   @Override
   public Date getDate(String columnLabel, Calendar cal) throws SQLException {
-    return this.delegate.getDate(columnLabel, cal);
+    return this.fetched(this.delegate.getDate(columnLabel, cal));
   }
 
   @Override
   public Time getTime(int columnIndex, Calendar cal) throws SQLException {
-    return this.delegate.getTime(columnIndex, cal);
+    return this.fetched(this.delegate.getTime(columnIndex, cal));
   }
 
   @Override
   public Time getTime(String columnLabel, Calendar cal) throws SQLException {
-    return this.delegate.getTime(columnLabel, cal);
+    return this.fetched(this.delegate.getTime(columnLabel, cal));
   }
 
   @Override
   public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
-    return this.delegate.getTimestamp(columnIndex, cal);
+    return this.fetched(this.delegate.getTimestamp(columnIndex, cal));
   }
 
   @Override
   public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
-    return this.delegate.getTimestamp(columnLabel, cal);
+    return this.fetched(this.delegate.getTimestamp(columnLabel, cal));
   }
 
   @Override
@@ -785,22 +947,22 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public void updateBlob(int columnIndex, Blob x) throws SQLException {
-    this.delegate.updateBlob(columnIndex, x);
+    this.delegate.updateBlob(columnIndex, JfrBlob.unwrap(x));
   }
 
   @Override
   public void updateBlob(String columnLabel, Blob x) throws SQLException {
-    this.delegate.updateBlob(columnLabel, x);
+    this.delegate.updateBlob(columnLabel, JfrBlob.unwrap(x));
   }
 
   @Override
   public void updateClob(int columnIndex, Clob x) throws SQLException {
-    this.delegate.updateClob(columnIndex, x);
+    this.delegate.updateClob(columnIndex, JfrClob.unwrap(x));
   }
 
   @Override
   public void updateClob(String columnLabel, Clob x) throws SQLException {
-    this.delegate.updateClob(columnLabel, x);
+    this.delegate.updateClob(columnLabel, JfrClob.unwrap(x));
   }
 
   @Override
@@ -855,22 +1017,22 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
-    this.delegate.updateNClob(columnIndex, nClob);
+    this.delegate.updateNClob(columnIndex, JfrNClob.unwrap(nClob));
   }
 
   @Override
   public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
-    this.delegate.updateNClob(columnLabel, nClob);
+    this.delegate.updateNClob(columnLabel, JfrNClob.unwrap(nClob));
   }
 
   @Override
   public NClob getNClob(int columnIndex) throws SQLException {
-    return this.delegate.getNClob(columnIndex);
+    return this.trackNClob(this.delegate.getNClob(columnIndex), "NClob");
   }
 
   @Override
   public NClob getNClob(String columnLabel) throws SQLException {
-    return this.delegate.getNClob(columnLabel);
+    return this.trackNClob(this.delegate.getNClob(columnLabel), "NClob");
   }
 
   @Override
@@ -895,22 +1057,22 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public String getNString(int columnIndex) throws SQLException {
-    return this.delegate.getNString(columnIndex);
+    return this.fetched(this.delegate.getNString(columnIndex));
   }
 
   @Override
   public String getNString(String columnLabel) throws SQLException {
-    return this.delegate.getNString(columnLabel);
+    return this.fetched(this.delegate.getNString(columnLabel));
   }
 
   @Override
   public Reader getNCharacterStream(int columnIndex) throws SQLException {
-    return this.delegate.getNCharacterStream(columnIndex);
+    return this.trackReader(this.delegate.getNCharacterStream(columnIndex), "NCharacterStream");
   }
 
   @Override
   public Reader getNCharacterStream(String columnLabel) throws SQLException {
-    return this.delegate.getNCharacterStream(columnLabel);
+    return this.trackReader(this.delegate.getNCharacterStream(columnLabel), "NCharacterStream");
   }
 
   @Override
@@ -1055,34 +1217,34 @@ class JfrResultSet implements ResultSet {
 
   @Override
   public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
-    return this.delegate.getObject(columnIndex, type);
+    return this.fetched(this.delegate.getObject(columnIndex, type));
   }
 
   @Override
   public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
-    return this.delegate.getObject(columnLabel, type);
+    return this.fetched(this.delegate.getObject(columnLabel, type));
   }
 
   @Override
   public void updateObject(int columnIndex, Object x, SQLType targetSqlType, int scaleOrLength)
       throws SQLException {
-    this.delegate.updateObject(columnIndex, x, targetSqlType, scaleOrLength);
+    this.delegate.updateObject(columnIndex, JfrNClob.unwrapObject(x), targetSqlType, scaleOrLength);
   }
 
   @Override
   public void updateObject(String columnLabel, Object x, SQLType targetSqlType, int scaleOrLength)
       throws SQLException {
-    this.delegate.updateObject(columnLabel, x, targetSqlType, scaleOrLength);
+    this.delegate.updateObject(columnLabel, JfrNClob.unwrapObject(x), targetSqlType, scaleOrLength);
   }
 
   @Override
   public void updateObject(int columnIndex, Object x, SQLType targetSqlType) throws SQLException {
-    this.delegate.updateObject(columnIndex, x, targetSqlType);
+    this.delegate.updateObject(columnIndex, JfrNClob.unwrapObject(x), targetSqlType);
   }
 
   @Override
   public void updateObject(String columnLabel, Object x, SQLType targetSqlType) throws SQLException {
-    this.delegate.updateObject(columnLabel, x, targetSqlType);
+    this.delegate.updateObject(columnLabel, JfrNClob.unwrapObject(x), targetSqlType);
   }
 
 }
@@ -9,11 +9,46 @@ import java.util.Objects;
 
 class JfrStatement implements Statement {
 
-  private final Statement delegate;
-  private final Connection parent;
+  // replaced by ClosedStatement after a logical close
+  private Statement delegate;
+  final JfrConnection parent;
   final long objectId;
 
-  JfrStatement(Connection parent, Statement delegate) {
+  /**
+   * The number of statements added to the current batch.
+   */
+  int batchSize;
+
+  /**
+   * The query of the first statement added to the current batch,
+   * {@code null} if the batch is empty.
+   */
+  private QueryInfo batchQueryInfo;
+
+  /**
+   * Whether an attribute that has to be restored before the statement is
+   * reused was changed, see {@link StatementCache.Entry#reset(boolean, boolean)}.
+   */
+  boolean attributesChanged;
+
+  /**
+   * Whether a setting was changed that can not be undone and the statement
+   * must not be reused.
+   */
+  boolean notReusable;
+
+  /**
+   * Whether the application set the fetch size, disables the adaptive
+   * fetch size.
+   */
+  boolean explicitFetchSize;
+
+  /**
+   * The fetch size last set by the adaptive fetch size, {@code 0} if none.
+   */
+  int adaptedFetchSize;
+
+  JfrStatement(JfrConnection parent, Statement delegate) {
     Objects.requireNonNull(parent, "parent");
     Objects.requireNonNull(delegate, "delegate");
     this.parent = parent;
@@ -21,20 +56,189 @@ class JfrStatement implements Statement {
     this.objectId = ObjectIdGenerator.nextId();
   }
 
+  /**
+   * Detaches the wrapper from the statement of the driver after a logical
+   * close so that the statement can not be used through this wrapper anymore.
+   */
+  void detach() {
+    this.delegate = ClosedStatement.INSTANCE;
+  }
+
   private JdbcOperationEvent newObjectEvent(String operationName) {
-    // TODO save last SQL
-    return this.newOperationEvent(operationName, null);
+    if (!EventSampler.sample()) {
+      return JdbcOperationEvent.sampledOut();
+    }
+    return this.newUnsampledEvent(operationName);
   }
 
-  private JdbcOperationEvent newOperationEvent(String operationName, String query) {
+  private JdbcOperationEvent newUnsampledEvent(String operationName) {
+    // TODO save last SQL
     var event = new JdbcOperationEvent();
     event.operationObject = "PreparedStatement";
     event.operationName = operationName;
-    event.query = query;
     event.objectId = this.objectId;
     return event;
   }
 
+  private JdbcOperationEvent newOperationEvent(String operationName, QueryInfo queryInfo) {
+    if (!EventSampler.sample(queryInfo)) {
+      return JdbcOperationEvent.sampledOut();
+    }
+    var event = this.newUnsampledEvent(operationName);
+    event.setQuery(queryInfo);
+    if (this.parent.callerAttribution != null) {
+      this.parent.callerAttribution.attribute(event, queryInfo);
+    }
+    return event;
+  }
+
+  /**
+   * Called before a statement is executed.
+   *
+   * @return the start time to pass to {@link #endExecution(QueryInfo, long)}
+   * @throws SQLException if starting the transaction fails
+   */
+  long startExecution() throws SQLException {
+    this.parent.statementStarting();
+    return System.nanoTime();
+  }
+
+  /**
+   * Called after a statement has been executed, even if the execution failed.
+   *
+   * @param queryInfo the executed query
+   * @param start the value returned by {@link #startExecution()}
+   */
+  void endExecution(QueryInfo queryInfo, long start) {
+    long duration = System.nanoTime() - start;
+    this.parent.statementExecuted(queryInfo, duration);
+    if (JdbcRecordingState.isStatisticsEnabled()) {
+      StatementStatistics.record(queryInfo, duration);
+    }
+  }
+
+  /**
+   * Called when the execution of a statement threw an exception.
+   *
+   * @param event the operation of the execution
+   * @param callEvent the call of the statement
+   */
+  static void executionFailed(JdbcOperationEvent event, JdbcCallEvent callEvent) {
+    event.failed = true;
+    callEvent.failed = true;
+  }
+
+  /**
+   * Called before a query is executed, sets the fetch size chosen by the
+   * {@link AdaptiveFetchSize} unless the application set one.
+   *
+   * @param queryInfo the query to execute
+   * @throws SQLException if setting the fetch size fails
+   */
+  void adaptFetchSize(QueryInfo queryInfo) throws SQLException {
+    if ((this.parent.adaptiveFetchSize == null) || this.explicitFetchSize) {
+      return;
+    }
+    int fetchSize = queryInfo.fetchSize;
+    if ((fetchSize != 0) && (fetchSize != this.adaptedFetchSize)) {
+      this.delegate.setFetchSize(fetchSize);
+      this.adaptedFetchSize = fetchSize;
+      this.attributesChanged = true;
+    }
+  }
+
+  /**
+   * Called when a result set is closed.
+   *
+   * @param callEvent the call of the result set
+   * @param rowCount the number of rows read from the result set
+   */
+  void resultSetClosed(JdbcCallEvent callEvent, long rowCount) {
+    var adaptiveFetchSize = this.parent.adaptiveFetchSize;
+    if (adaptiveFetchSize != null) {
+      var queryInfo = callEvent.getQueryInfo();
+      if (queryInfo != null) {
+        adaptiveFetchSize.rowsFetched(queryInfo, rowCount);
+      }
+    }
+  }
+
+  /**
+   * Called after a statement has updated rows.
+   *
+   * @param callEvent the call to add the rows to
+   * @param rowCount the update count returned by the driver, may be negative
+   *                 if there is no update count
+   */
+  void rowsUpdated(JdbcCallEvent callEvent, long rowCount) {
+    if (rowCount > 0L) {
+      callEvent.rowCount += rowCount;
+      this.parent.rowsAffected(rowCount);
+    }
+  }
+
+  /**
+   * Called after a batch has been executed.
+   *
+   * @param callEvent the call to add the batch to
+   * @param rowCount the sum of the update counts
+   * @param noInfoCount the number of statements without an update count
+   */
+  void batchExecuted(JdbcCallEvent callEvent, long rowCount, long noInfoCount) {
+    callEvent.batchCount += 1L;
+    callEvent.batchStatementCount += this.batchSize;
+    callEvent.maxBatchSize = Math.max(callEvent.maxBatchSize, this.batchSize);
+    callEvent.noInfoCount += noInfoCount;
+    this.rowsUpdated(callEvent, rowCount);
+  }
+
+  /**
+   * Sums the row counts of an executed batch, ignoring
+   * {@link Statement#SUCCESS_NO_INFO} and {@link Statement#EXECUTE_FAILED}.
+   *
+   * @param updateCounts the update counts returned by the driver
+   * @return the sum of the known update counts
+   */
+  static long sumUpdateCounts(int[] updateCounts) {
+    long rowCount = 0L;
+    for (int updateCount : updateCounts) {
+      if (updateCount > 0) {
+        rowCount += updateCount;
+      }
+    }
+    return rowCount;
+  }
+
+  static long sumUpdateCounts(long[] updateCounts) {
+    long rowCount = 0L;
+    for (long updateCount : updateCounts) {
+      if (updateCount > 0L) {
+        rowCount += updateCount;
+      }
+    }
+    return rowCount;
+  }
+
+  static long countNoInfo(int[] updateCounts) {
+    long noInfoCount = 0L;
+    for (int updateCount : updateCounts) {
+      if (updateCount == SUCCESS_NO_INFO) {
+        noInfoCount += 1L;
+      }
+    }
+    return noInfoCount;
+  }
+
+  static long countNoInfo(long[] updateCounts) {
+    long noInfoCount = 0L;
+    for (long updateCount : updateCounts) {
+      if (updateCount == SUCCESS_NO_INFO) {
+        noInfoCount += 1L;
+      }
+    }
+    return noInfoCount;
+  }
+
   @Override
   public <T> T unwrap(Class<T> iface) throws SQLException {
     return this.delegate.unwrap(iface);
@@ -58,6 +262,7 @@ class JfrStatement implements Statement {
   @Override
   public void setMaxFieldSize(int max) throws SQLException {
     this.delegate.setMaxFieldSize(max);
+    this.attributesChanged = true;
   }
 
   @Override
@@ -68,11 +273,13 @@ class JfrStatement implements Statement {
   @Override
   public void setMaxRows(int max) throws SQLException {
     this.delegate.setMaxRows(max);
+    this.attributesChanged = true;
   }
 
   @Override
   public void setEscapeProcessing(boolean enable) throws SQLException {
     this.delegate.setEscapeProcessing(enable);
+    this.attributesChanged = true;
   }
 
   @Override
@@ -83,6 +290,7 @@ class JfrStatement implements Statement {
   @Override
   public void setQueryTimeout(int seconds) throws SQLException {
     this.delegate.setQueryTimeout(seconds);
+    this.attributesChanged = true;
   }
 
   @Override
@@ -110,6 +318,7 @@ class JfrStatement implements Statement {
   @Override
   public void setCursorName(String name) throws SQLException {
     this.delegate.setCursorName(name);
+    this.notReusable = true;
   }
 
   @Override
@@ -137,6 +346,7 @@ class JfrStatement implements Statement {
   @Override
   public void setFetchDirection(int direction) throws SQLException {
     this.delegate.setFetchDirection(direction);
+    this.attributesChanged = true;
   }
 
   @Override
@@ -147,6 +357,8 @@ class JfrStatement implements Statement {
   @Override
   public void setFetchSize(int rows) throws SQLException {
     this.delegate.setFetchSize(rows);
+    this.explicitFetchSize = true;
+    this.attributesChanged = true;
   }
 
   @Override
@@ -166,19 +378,24 @@ class JfrStatement implements Statement {
 
   @Override
   public void addBatch(String sql) throws SQLException {
-    var event = this.newOperationEvent("addBatch", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var event = this.newOperationEvent("addBatch", queryInfo);
     event.begin();
     try {
       this.delegate.addBatch(sql);
+      if (this.batchSize == 0) {
+        this.batchQueryInfo = queryInfo;
+      }
+      this.batchSize += 1;
     } finally {
-      event.end();
-      event.commit();
+      event.complete();
     }
   }
 
   @Override
   public void clearBatch() throws SQLException {
     this.delegate.clearBatch();
+    this.batchCleared();
   }
 
   @Override
@@ -203,7 +420,7 @@ class JfrStatement implements Statement {
     var callEvent = new JdbcCallEvent("getGeneratedKeys");
     var objectEvent = this.newObjectEvent("getGeneratedKeys");
 
-    callEvent.begin();
+    callEvent.start();
     objectEvent.begin();
 
     try {
@@ -217,186 +434,368 @@ class JfrStatement implements Statement {
 
   @Override
   public ResultSet executeQuery(String sql) throws SQLException {
-    var callEvent = new JdbcCallEvent(sql);
-    var objectEvent = this.newOperationEvent("executeQuery", sql);
+    var queryInfo = QueryInfo.of(sql);
+    this.adaptFetchSize(queryInfo);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var objectEvent = this.newOperationEvent("executeQuery", queryInfo);
 
-    callEvent.begin();
+    callEvent.start();
     objectEvent.begin();
+    long start = this.startExecution();
 
     try {
       var resultSet = this.delegate.executeQuery(sql);
       return new JfrCallResultSet(this, resultSet, callEvent);
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(objectEvent, callEvent);
+      // there is no result set that completes the call
+      callEvent.complete();
+      throw e;
     } finally {
-      objectEvent.end();
-      objectEvent.commit();
+      this.endExecution(queryInfo, start);
+      objectEvent.complete();
     }
   }
 
   @Override
   public boolean execute(String sql) throws SQLException {
-    var event = this.newOperationEvent("execute", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("execute", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.execute(sql);
+      boolean isResultSet = this.delegate.execute(sql);
+      if (!isResultSet) {
+        this.rowsUpdated(callEvent, this.delegate.getUpdateCount());
+      }
+      return isResultSet;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public int executeUpdate(String sql) throws SQLException {
-    var event = this.newOperationEvent("executeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeUpdate(sql);
+      int rowCount = this.delegate.executeUpdate(sql);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
-    var event = this.newOperationEvent("executeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeUpdate(sql, autoGeneratedKeys);
+      int rowCount = this.delegate.executeUpdate(sql, autoGeneratedKeys);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
-    var event = this.newOperationEvent("executeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeUpdate(sql, columnIndexes);
+      int rowCount = this.delegate.executeUpdate(sql, columnIndexes);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public int executeUpdate(String sql, String[] columnNames) throws SQLException {
-    var event = this.newOperationEvent("executeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeUpdate(sql, columnNames);
+      int rowCount = this.delegate.executeUpdate(sql, columnNames);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
-    var event = this.newOperationEvent("execute", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("execute", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.execute(sql, autoGeneratedKeys);
+      boolean isResultSet = this.delegate.execute(sql, autoGeneratedKeys);
+      if (!isResultSet) {
+        this.rowsUpdated(callEvent, this.delegate.getUpdateCount());
+      }
+      return isResultSet;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public boolean execute(String sql, int[] columnIndexes) throws SQLException {
-    var event = this.newOperationEvent("execute", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("execute", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.execute(sql, columnIndexes);
+      boolean isResultSet = this.delegate.execute(sql, columnIndexes);
+      if (!isResultSet) {
+        this.rowsUpdated(callEvent, this.delegate.getUpdateCount());
+      }
+      return isResultSet;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public boolean execute(String sql, String[] columnNames) throws SQLException {
-    var event = this.newOperationEvent("execute", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("execute", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.execute(sql, columnNames);
+      boolean isResultSet = this.delegate.execute(sql, columnNames);
+      if (!isResultSet) {
+        this.rowsUpdated(callEvent, this.delegate.getUpdateCount());
+      }
+      return isResultSet;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public int[] executeBatch() throws SQLException {
-    var event = this.newObjectEvent("executeBatch");
-    event.begin();
+    // the call of a batch is recorded with the query of its first statement
+    var queryInfo = this.batchQueryInfo;
+    if (queryInfo == null) {
+      try {
+        return this.delegate.executeBatch();
+      } finally {
+        this.batchCleared();
+      }
+    }
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var objectEvent = this.newOperationEvent("executeBatch", queryInfo);
+
+    callEvent.start();
+    objectEvent.begin();
+    long start = this.startExecution();
+
     try {
-      return this.delegate.executeBatch();
+      int[] updateCounts = this.delegate.executeBatch();
+      this.batchExecuted(callEvent, sumUpdateCounts(updateCounts), countNoInfo(updateCounts));
+      return updateCounts;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(objectEvent, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.batchCleared();
+      this.endExecution(queryInfo, start);
+      objectEvent.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public long[] executeLargeBatch() throws SQLException {
-    var event = this.newObjectEvent("executeLargeBatch");
-    event.begin();
+    var queryInfo = this.batchQueryInfo;
+    if (queryInfo == null) {
+      try {
+        return this.delegate.executeLargeBatch();
+      } finally {
+        this.batchCleared();
+      }
+    }
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var objectEvent = this.newOperationEvent("executeLargeBatch", queryInfo);
+
+    callEvent.start();
+    objectEvent.begin();
+    long start = this.startExecution();
+
     try {
-      return this.delegate.executeLargeBatch();
+      long[] updateCounts = this.delegate.executeLargeBatch();
+      this.batchExecuted(callEvent, sumUpdateCounts(updateCounts), countNoInfo(updateCounts));
+      return updateCounts;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(objectEvent, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.batchCleared();
+      this.endExecution(queryInfo, start);
+      objectEvent.complete();
+      callEvent.complete();
     }
   }
 
+  private void batchCleared() {
+    this.batchSize = 0;
+    this.batchQueryInfo = null;
+  }
+
   @Override
   public long executeLargeUpdate(String sql) throws SQLException {
-    var event = this.newOperationEvent("executeLargeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeLargeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeLargeUpdate(sql);
+      long rowCount = this.delegate.executeLargeUpdate(sql);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
-    var event = this.newOperationEvent("executeLargeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeLargeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+      long rowCount = this.delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
-    var event = this.newOperationEvent("executeLargeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeLargeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeLargeUpdate(sql, columnIndexes);
+      long rowCount = this.delegate.executeLargeUpdate(sql, columnIndexes);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
   @Override
   public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
-    var event = this.newOperationEvent("executeLargeUpdate", sql);
+    var queryInfo = QueryInfo.of(sql);
+    var callEvent = new JdbcCallEvent(queryInfo, this.parent);
+    var event = this.newOperationEvent("executeLargeUpdate", queryInfo);
+    callEvent.start();
     event.begin();
+    long start = this.startExecution();
     try {
-      return this.delegate.executeLargeUpdate(sql, columnNames);
+      long rowCount = this.delegate.executeLargeUpdate(sql, columnNames);
+      this.rowsUpdated(callEvent, rowCount);
+      return rowCount;
+    } catch (SQLException | RuntimeException e) {
+      executionFailed(event, callEvent);
+      throw e;
     } finally {
-      event.end();
-      event.commit();
+      this.endExecution(queryInfo, start);
+      event.complete();
+      callEvent.complete();
     }
   }
 
@@ -413,6 +812,9 @@ class JfrStatement implements Statement {
   @Override
   public void setPoolable(boolean poolable) throws SQLException {
     this.delegate.setPoolable(poolable);
+    if (!poolable) {
+      this.notReusable = true;
+    }
   }
 
   @Override
@@ -423,6 +825,7 @@ class JfrStatement implements Statement {
   @Override
   public void closeOnCompletion() throws SQLException {
     this.delegate.closeOnCompletion();
+    this.notReusable = true;
   }
 
   @Override
@@ -438,6 +841,7 @@ class JfrStatement implements Statement {
   @Override
   public void setLargeMaxRows(long max) throws SQLException {
     this.delegate.setLargeMaxRows(max);
+    this.attributesChanged = true;
   }
 
   @Override
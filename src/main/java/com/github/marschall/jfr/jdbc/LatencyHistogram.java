@@ -0,0 +1,137 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free log-linear histogram of latencies in nanoseconds.
+ * <p>
+ * Every power of two is split into {@value #SUB_BUCKET_COUNT} linear sub
+ * buckets so the relative error of a percentile is at most 12.5%.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+  static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts;
+
+  private final AtomicLong totalTime;
+
+  private final AtomicLong maxTime;
+
+  /**
+   * Set once the histogram is no longer part of {@link StatementStatistics},
+   * values recorded afterwards are lost.
+   */
+  volatile boolean retired;
+
+  LatencyHistogram() {
+    this.counts = new AtomicLongArray(BUCKET_COUNT);
+    this.totalTime = new AtomicLong();
+    this.maxTime = new AtomicLong();
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      // also covers negative values that should not happen with System.nanoTime()
+      return Math.max((int) value, 0);
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long lowerBound(int bucketIndex) {
+    if (bucketIndex < SUB_BUCKET_COUNT) {
+      return bucketIndex;
+    }
+    int bucket = bucketIndex / SUB_BUCKET_COUNT;
+    int subBucket = bucketIndex % SUB_BUCKET_COUNT;
+    int exponent = bucket + SUB_BUCKET_BITS - 1;
+    return ((long) SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  static long upperBound(int bucketIndex) {
+    if (bucketIndex == BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return lowerBound(bucketIndex + 1) - 1L;
+  }
+
+  void record(long nanos) {
+    this.counts.incrementAndGet(bucketIndex(nanos));
+    this.totalTime.addAndGet(nanos);
+    long currentMax = this.maxTime.get();
+    while (nanos > currentMax && !this.maxTime.compareAndSet(currentMax, nanos)) {
+      currentMax = this.maxTime.get();
+    }
+  }
+
+  /**
+   * Takes a snapshot of the recorded values and resets the histogram.
+   * <p>
+   * Values recorded concurrently may end up in this or the next snapshot,
+   * the count, total and max of a snapshot may therefore be slightly
+   * inconsistent.
+   *
+   * @return the snapshot, not {@code null}
+   */
+  Snapshot snapshotAndReset() {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long count = 0L;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      long bucketCount = this.counts.getAndSet(i, 0L);
+      snapshot[i] = bucketCount;
+      count += bucketCount;
+    }
+    return new Snapshot(snapshot, count, this.totalTime.getAndSet(0L), this.maxTime.getAndSet(0L));
+  }
+
+  static final class Snapshot {
+
+    private final long[] counts;
+
+    final long count;
+
+    final long totalTime;
+
+    final long maxTime;
+
+    Snapshot(long[] counts, long count, long totalTime, long maxTime) {
+      this.counts = counts;
+      this.count = count;
+      this.totalTime = totalTime;
+      this.maxTime = maxTime;
+    }
+
+    /**
+     * Computes a percentile.
+     *
+     * @param percentile the percentile between 0.0 and 1.0
+     * @return the upper bound of the bucket containing the percentile,
+     *         at most the maximum value
+     */
+    long percentile(double percentile) {
+      if (this.count == 0L) {
+        return 0L;
+      }
+      long rank = Math.max((long) Math.ceil(percentile * this.count), 1L);
+      long seen = 0L;
+      for (int i = 0; i < this.counts.length; i++) {
+        seen += this.counts[i];
+        if (seen >= rank) {
+          return Math.min(upperBound(i), this.maxTime);
+        }
+      }
+      return this.maxTime;
+    }
+
+  }
+
+}
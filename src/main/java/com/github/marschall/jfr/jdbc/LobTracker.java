@@ -0,0 +1,90 @@
+package com.github.marschall.jfr.jdbc;
+
+/**
+ * Accumulates the data read from a LOB or stream and publishes it as a
+ * {@link JdbcLobEvent} when the LOB is freed or the stream is closed.
+ * <p>
+ * Not thread safe, like a result set.
+ */
+final class LobTracker {
+
+  private final JdbcLobEvent event;
+
+  // null if the call has no query
+  private final QueryInfo queryInfo;
+
+  private long bytes;
+
+  private long characters;
+
+  private long readCount;
+
+  private long readTime;
+
+  private boolean completed;
+
+  private LobTracker(JdbcLobEvent event, QueryInfo queryInfo) {
+    this.event = event;
+    this.queryInfo = queryInfo;
+    this.completed = false;
+  }
+
+  /**
+   * Starts tracking a LOB or stream.
+   *
+   * @param lobType the type of the returned object
+   * @param callEvent the call of the result set, may be {@code null}
+   * @param objectId the object id of the result set
+   * @return the tracker, {@code null} if {@link JdbcLobEvent} is disabled
+   */
+  static LobTracker start(String lobType, JdbcCallEvent callEvent, long objectId) {
+    var event = new JdbcLobEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.lobType = lobType;
+    QueryInfo queryInfo = null;
+    if (callEvent != null) {
+      queryInfo = callEvent.getQueryInfo();
+      if (queryInfo == null) {
+        event.query = callEvent.query;
+      }
+      event.queryId = callEvent.queryId;
+    }
+    event.objectId = objectId;
+    event.begin();
+    return new LobTracker(event, queryInfo);
+  }
+
+  void bytesRead(long count, long nanos) {
+    this.bytes += count;
+    this.readCount += 1L;
+    this.readTime += nanos;
+  }
+
+  void charactersRead(long count, long nanos) {
+    this.characters += count;
+    this.readCount += 1L;
+    this.readTime += nanos;
+  }
+
+  void complete() {
+    if (this.completed) {
+      return;
+    }
+    this.completed = true;
+    var event = this.event;
+    event.end();
+    if (event.shouldCommit()) {
+      event.bytes = this.bytes;
+      event.characters = this.characters;
+      event.readCount = this.readCount;
+      event.readTime = this.readTime;
+      if (this.queryInfo != null) {
+        event.query = this.queryInfo.recordedSql();
+      }
+      event.commit();
+    }
+  }
+
+}
@@ -2,16 +2,46 @@ package com.github.marschall.jfr.jdbc;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Generates the ids used to track which object an operation belongs to.
+ * <p>
+ * Every thread reserves a block of ids from a shared counter and hands out
+ * ids from it, so the shared counter is only updated once per block instead
+ * of once per id. Ids are unique but not handed out in creation order across
+ * threads.
+ */
 final class ObjectIdGenerator {
 
+  static final int BLOCK_SIZE = 1024;
+
   private static final AtomicLong CURRENT_ID = new AtomicLong();
 
+  private static final ThreadLocal<IdBlock> ID_BLOCK = ThreadLocal.withInitial(IdBlock::new);
+
   private ObjectIdGenerator() {
     throw new AssertionError("not instantiable");
   }
 
   static long nextId() {
-    return CURRENT_ID.incrementAndGet();
+    return ID_BLOCK.get().nextId();
+  }
+
+  static final class IdBlock {
+
+    private long next;
+
+    private long limit;
+
+    long nextId() {
+      if (this.next == this.limit) {
+        // ids start at 1
+        long start = CURRENT_ID.getAndAdd(BLOCK_SIZE) + 1L;
+        this.next = start;
+        this.limit = start + BLOCK_SIZE;
+      }
+      return this.next++;
+    }
+
   }
 
 }
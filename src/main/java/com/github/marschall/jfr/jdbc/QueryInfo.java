@@ -0,0 +1,151 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Information about a distinct SQL query string that is computed only once.
+ * <p>
+ * Instances are cached in a bounded, direct mapped cache. Lookups and
+ * updates are lock free, on a collision the previous entry is replaced.
+ * <p>
+ * A replaced entry loses its mutable state, the next lookup of its query
+ * string starts over. The histogram and the callers are only caches that
+ * are looked up or computed again, at worst a {@link JdbcQueryTextEvent} is
+ * emitted twice in a chunk, and the estimate of {@link AdaptiveFetchSize}
+ * starts over from the default fetch size. None of this loses recorded
+ * data.
+ */
+final class QueryInfo {
+
+  private static final int CACHE_SIZE = 4096;
+
+  private static final int CACHE_MASK = CACHE_SIZE - 1;
+
+  private static final AtomicReferenceArray<QueryInfo> CACHE = new AtomicReferenceArray<>(CACHE_SIZE);
+
+  final String sql;
+
+  final String fingerprint;
+
+  final long fingerprintHash;
+
+  /**
+   * The hash of {@link #sql}, used to reference it from events.
+   */
+  final long queryId;
+
+  /**
+   * The {@link JdbcRecordingState#getQueryTextEpoch() query text epoch} in
+   * which the last {@link JdbcQueryTextEvent} was emitted, benign data race.
+   */
+  private int queryTextEpoch;
+
+  /**
+   * The {@link SqlFilter#id} shifted left by one with the decision in the
+   * lowest bit, benign data race.
+   */
+  private int filterDecision;
+
+  /**
+   * Cached histogram from {@link StatementStatistics}, benign data race.
+   */
+  LatencyHistogram histogram;
+
+  /**
+   * The estimated number of rows read per execution, see
+   * {@link AdaptiveFetchSize}, benign data race.
+   */
+  int fetchRowEstimate;
+
+  /**
+   * The fetch size chosen by {@link AdaptiveFetchSize}, {@code 0} if none
+   * was chosen yet, benign data race.
+   */
+  int fetchSize;
+
+  /**
+   * The callers per call site cached by {@link CallerAttribution}, copy on
+   * write, benign data race.
+   */
+  CallerAttribution.Caller[] callers;
+
+  private QueryInfo(String sql) {
+    this.sql = sql;
+    this.fingerprint = SqlNormalizer.normalize(sql);
+    this.fingerprintHash = SqlNormalizer.hash(this.fingerprint);
+    this.queryId = SqlNormalizer.hash(sql);
+  }
+
+  /**
+   * The query string to record in an event.
+   * <p>
+   * If {@link JdbcQueryTextEvent} is enabled the query string is emitted
+   * once per chunk as a separate event and {@code null} is returned, events
+   * then only carry the {@link #queryId}.
+   *
+   * @return the query string to record, possibly {@code null}
+   */
+  String recordedSql() {
+    int epoch = JdbcRecordingState.getQueryTextEpoch();
+    if (epoch == 0) {
+      return this.sql;
+    }
+    if (this.queryTextEpoch != epoch) {
+      // at worst the text is emitted more than once
+      this.queryTextEpoch = epoch;
+      JdbcQueryTextEvent.emit(this);
+    }
+    return null;
+  }
+
+  /**
+   * Whether calls of statements with this query string should be recorded.
+   *
+   * @return {@code false} if the query string does not match the
+   *         {@link SqlFilterSetting}
+   */
+  boolean isCallRecorded() {
+    SqlFilter filter = SqlFilter.current();
+    if (filter == null) {
+      return true;
+    }
+    int decision = this.filterDecision;
+    if ((decision >>> 1) != filter.id) {
+      decision = (filter.id << 1) | (filter.matches(this.sql) ? 1 : 0);
+      this.filterDecision = decision;
+    }
+    return (decision & 1) != 0;
+  }
+
+  /**
+   * The fingerprint to record in an event.
+   *
+   * @return the fingerprint to record, {@code null} if
+   *         {@link JdbcQueryTextEvent} is enabled
+   */
+  String recordedFingerprint() {
+    return JdbcRecordingState.getQueryTextEpoch() == 0 ? this.fingerprint : null;
+  }
+
+  /**
+   * Looks up the information for a SQL query string, computing it if it is
+   * not cached.
+   *
+   * @param sql the SQL query string, not {@code null}
+   * @return the information for the query string, not {@code null}
+   */
+  static QueryInfo of(String sql) {
+    // String caches its hash code
+    int hash = sql.hashCode();
+    int index = (hash ^ (hash >>> 16)) & CACHE_MASK;
+    QueryInfo cached = CACHE.get(index);
+    // identity check first as usually the same constant is used
+    if (cached != null && (cached.sql == sql || cached.sql.equals(sql))) {
+      return cached;
+    }
+    var queryInfo = new QueryInfo(sql);
+    CACHE.set(index, queryInfo);
+    return queryInfo;
+  }
+
+}
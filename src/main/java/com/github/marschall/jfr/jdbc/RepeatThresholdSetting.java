@@ -0,0 +1,52 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.Set;
+
+import jdk.jfr.SettingControl;
+
+/**
+ * Configures the threshold of {@link RepeatedQueryDetector}.
+ * <p>
+ * The value is a positive number of executions. With multiple recordings
+ * the smallest value wins.
+ */
+final class RepeatThresholdSetting extends SettingControl {
+
+  static final String DEFAULT = "10";
+
+  private String value = DEFAULT;
+
+  RepeatThresholdSetting() {
+    super();
+  }
+
+  @Override
+  public String combine(Set<String> settingValues) {
+    int min = Integer.MAX_VALUE;
+    for (String settingValue : settingValues) {
+      min = Math.min(min, parseThreshold(settingValue));
+    }
+    return min == Integer.MAX_VALUE ? DEFAULT : Integer.toString(min);
+  }
+
+  @Override
+  public void setValue(String settingValue) {
+    this.value = settingValue;
+    RepeatedQueryDetector.setThreshold(parseThreshold(settingValue));
+  }
+
+  @Override
+  public String getValue() {
+    return this.value;
+  }
+
+  static int parseThreshold(String settingValue) {
+    try {
+      int threshold = Integer.parseInt(settingValue.trim());
+      return threshold > 0 ? threshold : Integer.MAX_VALUE;
+    } catch (NumberFormatException e) {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+}
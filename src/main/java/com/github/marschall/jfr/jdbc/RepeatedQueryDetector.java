@@ -0,0 +1,106 @@
+package com.github.marschall.jfr.jdbc;
+
+/**
+ * Counts the executions per fingerprint of a connection within a scope, a
+ * transaction or a request, and reports the fingerprints executed at least
+ * threshold times at the end of the scope.
+ * <p>
+ * The counters are kept in open addressing arrays indexed by the
+ * fingerprint hash so that recording an execution does not allocate. Once
+ * {@link #CAPACITY} distinct fingerprints have been seen in a scope
+ * additional fingerprints are ignored.
+ * <p>
+ * Not thread safe, like a connection.
+ */
+final class RepeatedQueryDetector {
+
+  private static final int CAPACITY = 64;
+
+  // power of two and larger than CAPACITY to keep the probe sequences short
+  private static final int TABLE_SIZE = 128;
+
+  private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+  private static volatile int threshold = RepeatThresholdSetting.parseThreshold(RepeatThresholdSetting.DEFAULT);
+
+  private final QueryInfo[] queries;
+
+  private final int[] counts;
+
+  private final long[] times;
+
+  private int size;
+
+  RepeatedQueryDetector() {
+    this.queries = new QueryInfo[TABLE_SIZE];
+    this.counts = new int[TABLE_SIZE];
+    this.times = new long[TABLE_SIZE];
+    this.size = 0;
+  }
+
+  static void setThreshold(int executions) {
+    threshold = executions;
+  }
+
+  /**
+   * Records the execution of a statement.
+   *
+   * @param queryInfo the executed query
+   * @param duration the execution time in nanoseconds
+   */
+  void executed(QueryInfo queryInfo, long duration) {
+    long hash = queryInfo.fingerprintHash;
+    int index = (int) (hash ^ (hash >>> 32)) & TABLE_MASK;
+    while (true) {
+      QueryInfo current = this.queries[index];
+      if (current == null) {
+        if (this.size == CAPACITY) {
+          return;
+        }
+        this.queries[index] = queryInfo;
+        this.counts[index] = 1;
+        this.times[index] = duration;
+        this.size += 1;
+        return;
+      }
+      // compare the fingerprint as well in case of a hash collision
+      if ((current.fingerprintHash == hash)
+              && ((current == queryInfo) || current.fingerprint.equals(queryInfo.fingerprint))) {
+        this.counts[index] += 1;
+        this.times[index] += duration;
+        return;
+      }
+      index = (index + 1) & TABLE_MASK;
+    }
+  }
+
+  /**
+   * Ends the current scope, reports the repeated fingerprints and resets
+   * the counters.
+   *
+   * @param scopeEnd the operation ending the scope
+   */
+  void endScope(String scopeEnd) {
+    if (this.size == 0) {
+      return;
+    }
+    int limit = threshold;
+    for (int i = 0; i < TABLE_SIZE; i++) {
+      QueryInfo queryInfo = this.queries[i];
+      if (queryInfo != null) {
+        if (this.counts[i] >= limit) {
+          var event = new JdbcRepeatedQueryEvent();
+          event.fingerprint = queryInfo.fingerprint;
+          event.fingerprintHash = queryInfo.fingerprintHash;
+          event.executionCount = this.counts[i];
+          event.totalTime = this.times[i];
+          event.scopeEnd = scopeEnd;
+          event.commit();
+        }
+        this.queries[i] = null;
+      }
+    }
+    this.size = 0;
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.Set;
+
+import jdk.jfr.SettingControl;
+
+/**
+ * Configures {@link EventSampler}.
+ * <p>
+ * The value is either {@code "all"} or a comma separated list of
+ * <dl>
+ *  <dt>{@code first=<n>}</dt>
+ *  <dd>the number of occurrences per fingerprint that are always recorded</dd>
+ *  <dt>{@code interval=<n>}</dt>
+ *  <dd>after the first occurrences only every n-th occurrence is recorded</dd>
+ *  <dt>{@code throttle=<n>/s}</dt>
+ *  <dd>the maximum number of events recorded per second</dd>
+ * </dl>
+ * eg. {@code "first=100, interval=10, throttle=1000/s"}. Invalid values are
+ * ignored. With multiple recordings the least restrictive value of each
+ * part wins.
+ * <p>
+ * This is a single setting rather than one per part because JDK 17 mixes
+ * up the controls of events with more than one custom setting.
+ */
+final class SamplingSetting extends SettingControl {
+
+  static final String ALL = "all";
+
+  private static final String FIRST = "first=";
+
+  private static final String INTERVAL = "interval=";
+
+  private static final String THROTTLE = "throttle=";
+
+  private static final String PER_SECOND = "/s";
+
+  private String value = ALL;
+
+  SamplingSetting() {
+    super();
+  }
+
+  @Override
+  public String combine(Set<String> settingValues) {
+    if (settingValues.isEmpty()) {
+      return ALL;
+    }
+    long first = 0L;
+    long interval = Long.MAX_VALUE;
+    long throttle = 0L;
+    for (String settingValue : settingValues) {
+      long[] parsed = parse(settingValue);
+      first = Math.max(first, parsed[0]);
+      interval = Math.min(interval, parsed[1]);
+      throttle = Math.max(throttle, parsed[2]);
+    }
+    return format(first, interval, throttle);
+  }
+
+  @Override
+  public void setValue(String settingValue) {
+    this.value = settingValue;
+    long[] parsed = parse(settingValue);
+    EventSampler.configure(parsed[0], parsed[1], parsed[2]);
+  }
+
+  @Override
+  public String getValue() {
+    return this.value;
+  }
+
+  /**
+   * Parses a setting value.
+   *
+   * @param settingValue the value to parse, not {@code null}
+   * @return first, interval and throttle, {@link EventSampler#UNLIMITED}
+   *         for no limit
+   */
+  static long[] parse(String settingValue) {
+    long first = EventSampler.UNLIMITED;
+    long interval = 1L;
+    long throttle = EventSampler.UNLIMITED;
+    boolean firstSet = false;
+    for (String part : settingValue.split(",")) {
+      String trimmed = part.trim();
+      if (trimmed.startsWith(FIRST)) {
+        long parsed = parseCount(trimmed.substring(FIRST.length()));
+        if (parsed >= 0L) {
+          first = parsed;
+          firstSet = true;
+        }
+      } else if (trimmed.startsWith(INTERVAL)) {
+        long parsed = parseCount(trimmed.substring(INTERVAL.length()));
+        if (parsed > 0L) {
+          interval = parsed;
+        }
+      } else if (trimmed.startsWith(THROTTLE)) {
+        String rate = trimmed.substring(THROTTLE.length());
+        if (rate.endsWith(PER_SECOND)) {
+          rate = rate.substring(0, rate.length() - PER_SECOND.length());
+        }
+        long parsed = parseCount(rate);
+        if (parsed >= 0L) {
+          throttle = parsed;
+        }
+      }
+    }
+    if (interval > 1L && !firstSet) {
+      // only sampling requested
+      first = 0L;
+    }
+    return new long[] {first, interval, throttle};
+  }
+
+  private static long parseCount(String s) {
+    try {
+      return Long.parseLong(s.trim());
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  static String format(long first, long interval, long throttle) {
+    boolean noSampling = first == EventSampler.UNLIMITED || interval == 1L;
+    if (noSampling && throttle == EventSampler.UNLIMITED) {
+      return ALL;
+    }
+    var buffer = new StringBuilder();
+    if (!noSampling) {
+      buffer.append(FIRST).append(first).append(", ").append(INTERVAL).append(interval);
+    }
+    if (throttle != EventSampler.UNLIMITED) {
+      if (buffer.length() > 0) {
+        buffer.append(", ");
+      }
+      buffer.append(THROTTLE).append(throttle).append(PER_SECOND);
+    }
+    return buffer.toString();
+  }
+
+}
@@ -0,0 +1,51 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Decides the calls of which SQL query strings are recorded, based on the
+ * {@link SqlFilterSetting}.
+ * <p>
+ * The decision for a query string is cached in {@link QueryInfo} so that
+ * the pattern is evaluated only once per distinct query string and filter.
+ */
+final class SqlFilter {
+
+  private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+  // null if the calls of every query string are recorded
+  private static volatile SqlFilter current;
+
+  private final Pattern pattern;
+
+  /**
+   * Changes with every new filter, never {@code 0}.
+   */
+  final int id;
+
+  private SqlFilter(Pattern pattern) {
+    this.pattern = pattern;
+    int nextId = NEXT_ID.getAndIncrement() & 0x3FFFFFFF;
+    this.id = nextId == 0 ? 1 : nextId;
+  }
+
+  /**
+   * Returns the current filter.
+   *
+   * @return the current filter, {@code null} if the calls of every query
+   *         string are recorded
+   */
+  static SqlFilter current() {
+    return current;
+  }
+
+  static void setPattern(Pattern pattern) {
+    current = pattern == null ? null : new SqlFilter(pattern);
+  }
+
+  boolean matches(String sql) {
+    return this.pattern.matcher(sql).find();
+  }
+
+}
@@ -0,0 +1,75 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import jdk.jfr.SettingControl;
+
+/**
+ * Configures {@link SqlFilter}.
+ * <p>
+ * The value is either {@code "all"} or a regular expression that has to be
+ * found in a query string, eg. {@code "^SELECT .* FROM orders"}. Invalid
+ * regular expressions record the calls of all query strings. With multiple
+ * recordings the calls of the query strings matching any of the regular
+ * expressions are recorded.
+ */
+final class SqlFilterSetting extends SettingControl {
+
+  static final String ALL = "all";
+
+  private String value = ALL;
+
+  SqlFilterSetting() {
+    super();
+  }
+
+  @Override
+  public String combine(Set<String> settingValues) {
+    if (settingValues.isEmpty()) {
+      return ALL;
+    }
+    if (settingValues.size() == 1) {
+      return settingValues.iterator().next();
+    }
+    var buffer = new StringBuilder();
+    for (String settingValue : settingValues) {
+      if (isAll(settingValue)) {
+        return ALL;
+      }
+      if (buffer.length() > 0) {
+        buffer.append('|');
+      }
+      buffer.append("(?:").append(settingValue).append(')');
+    }
+    return buffer.toString();
+  }
+
+  @Override
+  public void setValue(String settingValue) {
+    this.value = settingValue;
+    SqlFilter.setPattern(compile(settingValue));
+  }
+
+  @Override
+  public String getValue() {
+    return this.value;
+  }
+
+  private static boolean isAll(String settingValue) {
+    return settingValue.isBlank() || settingValue.trim().equals(ALL);
+  }
+
+  static Pattern compile(String settingValue) {
+    if (isAll(settingValue)) {
+      return null;
+    }
+    try {
+      return Pattern.compile(settingValue);
+    } catch (PatternSyntaxException e) {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.regex.Pattern;
+
+/**
+ * Computes the fingerprint of a SQL query string.
+ * <p>
+ * The fingerprint is the query string with
+ * <ul>
+ *  <li>string and numeric literals replaced with {@code ?}</li>
+ *  <li>{@code IN} lists of literals or bind parameters collapsed to {@code IN (?...)}</li>
+ *  <li>comments removed</li>
+ *  <li>whitespace collapsed to a single space</li>
+ * </ul>
+ * This is not a full SQL parser, the goal is to group statements that only
+ * differ in literals, not to produce valid SQL.
+ */
+final class SqlNormalizer {
+
+  private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN ?\\( ?\\?(?: ?, ?\\?)* ?\\)");
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private SqlNormalizer() {
+    throw new AssertionError("not instantiable");
+  }
+
+  static String normalize(String sql) {
+    int length = sql.length();
+    var buffer = new StringBuilder(length);
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        i = skipQuoted(sql, i, '\'');
+        buffer.append('?');
+      } else if (c == '"' || c == '`') {
+        // quoted identifier, keep
+        int end = skipQuoted(sql, i, c);
+        buffer.append(sql, i, end);
+        i = end;
+      } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+        i = skipLineComment(sql, i);
+        appendSpace(buffer);
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        i = skipBlockComment(sql, i);
+        appendSpace(buffer);
+      } else if (Character.isWhitespace(c)) {
+        i += 1;
+        appendSpace(buffer);
+      } else if (isDigit(c) && !isPartOfIdentifier(buffer)) {
+        i = skipNumber(sql, i);
+        buffer.append('?');
+      } else {
+        buffer.append(c);
+        i += 1;
+      }
+    }
+    int last = buffer.length() - 1;
+    if (last >= 0 && buffer.charAt(last) == ' ') {
+      buffer.setLength(last);
+    }
+    return IN_LIST.matcher(buffer).replaceAll("IN (?...)");
+  }
+
+  private static void appendSpace(StringBuilder buffer) {
+    int length = buffer.length();
+    if (length > 0 && buffer.charAt(length - 1) != ' ') {
+      buffer.append(' ');
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isPartOfIdentifier(StringBuilder buffer) {
+    int length = buffer.length();
+    if (length == 0) {
+      return false;
+    }
+    char previous = buffer.charAt(length - 1);
+    return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+  }
+
+  private static int skipQuoted(String sql, int start, char quote) {
+    int length = sql.length();
+    int i = start + 1;
+    while (i < length) {
+      if (sql.charAt(i) == quote) {
+        if (i + 1 < length && sql.charAt(i + 1) == quote) {
+          // escaped quote
+          i += 2;
+        } else {
+          return i + 1;
+        }
+      } else {
+        i += 1;
+      }
+    }
+    return length;
+  }
+
+  private static int skipLineComment(String sql, int start) {
+    int end = sql.indexOf('\n', start);
+    return end == -1 ? sql.length() : end + 1;
+  }
+
+  private static int skipBlockComment(String sql, int start) {
+    int end = sql.indexOf("*/", start + 2);
+    return end == -1 ? sql.length() : end + 2;
+  }
+
+  private static int skipNumber(String sql, int start) {
+    int length = sql.length();
+    int i = start;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (isDigit(c) || c == '.') {
+        i += 1;
+      } else if ((c == 'e' || c == 'E') && i + 1 < length
+              && (isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')) {
+        i += 2;
+      } else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * Computes a 64 bit FNV-1a hash.
+   *
+   * @param s the string to hash, not {@code null}
+   * @return the hash
+   */
+  static long hash(String s) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      hash ^= c & 0xFF;
+      hash *= FNV_PRIME;
+      hash ^= c >>> 8;
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+}
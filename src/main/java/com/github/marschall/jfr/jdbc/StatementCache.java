@@ -0,0 +1,247 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per {@link JfrConnection} LRU cache of prepared statements.
+ * <p>
+ * The statements are prepared on the connection that is wrapped, for a
+ * connection pool the borrowed one, so that the pool tracks them. They are
+ * closed when the wrapper is closed.
+ * <p>
+ * Statements are removed from the cache while in use and returned to it
+ * on logical close so that a statement is never used twice at the same
+ * time. Every use gets a new wrapper which is detached from the statement
+ * on logical close. The least recently used statement is physically closed
+ * when the cache is full.
+ * <p>
+ * Not thread safe, like a connection. The hit, miss and eviction counts
+ * are global and published as {@link JdbcStatementCacheStatisticsEvent}s.
+ */
+final class StatementCache {
+
+  static final String SIZE_PROPERTY = "com.github.marschall.jfr.jdbc.statementCacheSize";
+
+  static final int DEFAULT = -1;
+
+  private static final LongAdder HITS = new LongAdder();
+
+  private static final LongAdder MISSES = new LongAdder();
+
+  private static final LongAdder EVICTIONS = new LongAdder();
+
+  private final LinkedHashMap<Key, Entry> statements;
+
+  private final int size;
+
+  StatementCache() {
+    this.size = Integer.getInteger(SIZE_PROPERTY, 0);
+    // access order for LRU, eviction is done in #release to close the statement
+    this.statements = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Whether the statement cache is enabled.
+   *
+   * @return {@code true} if {@value #SIZE_PROPERTY} is positive
+   */
+  static boolean isEnabled() {
+    return Integer.getInteger(SIZE_PROPERTY, 0) > 0;
+  }
+
+  /**
+   * Takes a statement out of the cache.
+   *
+   * @param key the key of the statement
+   * @return the cached statement, {@code null} if there is none
+   */
+  Entry acquire(Key key) {
+    var entry = this.statements.remove(key);
+    if (entry != null && isClosed(entry.statement)) {
+      // closed by the driver or pool
+      entry = null;
+    }
+    if (entry == null) {
+      MISSES.increment();
+      return null;
+    }
+    HITS.increment();
+    return entry;
+  }
+
+  private static boolean isClosed(PreparedStatement statement) {
+    try {
+      return statement.isClosed();
+    } catch (SQLException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Puts a reset statement back into the cache.
+   *
+   * @param entry the statement to cache, not {@code null}
+   * @throws SQLException if a statement can not be closed
+   */
+  void release(Entry entry) throws SQLException {
+    Key key = entry.key;
+    if (this.statements.containsKey(key)) {
+      // an other statement with the same key has been released first
+      entry.statement.close();
+      return;
+    }
+    this.statements.put(key, entry);
+    if (this.statements.size() > this.size) {
+      Iterator<Entry> iterator = this.statements.values().iterator();
+      var eldest = iterator.next();
+      iterator.remove();
+      EVICTIONS.increment();
+      eldest.statement.close();
+    }
+  }
+
+  /**
+   * Physically closes the cached statements, called before the connection
+   * is closed.
+   */
+  void close() {
+    for (Entry entry : this.statements.values()) {
+      try {
+        entry.statement.close();
+      } catch (SQLException e) {
+        // the connection is closed next anyway
+      }
+    }
+    this.statements.clear();
+  }
+
+  static void emit() {
+    long hits = HITS.sumThenReset();
+    long misses = MISSES.sumThenReset();
+    long evictions = EVICTIONS.sumThenReset();
+    if (hits == 0L && misses == 0L && evictions == 0L) {
+      // cache disabled or not used
+      return;
+    }
+    var event = new JdbcStatementCacheStatisticsEvent();
+    event.hits = hits;
+    event.misses = misses;
+    event.evictions = evictions;
+    event.commit();
+  }
+
+  /**
+   * A cached statement together with the attributes it had when it was
+   * prepared.
+   */
+  static final class Entry {
+
+    final Key key;
+
+    final PreparedStatement statement;
+
+    private final int maxRows;
+
+    private final int queryTimeout;
+
+    private final int fetchSize;
+
+    private final int fetchDirection;
+
+    private final int maxFieldSize;
+
+    Entry(Key key, PreparedStatement statement) throws SQLException {
+      this.key = key;
+      this.statement = statement;
+      this.maxRows = statement.getMaxRows();
+      this.queryTimeout = statement.getQueryTimeout();
+      this.fetchSize = statement.getFetchSize();
+      this.fetchDirection = statement.getFetchDirection();
+      this.maxFieldSize = statement.getMaxFieldSize();
+    }
+
+    /**
+     * Resets the state of the statement before it is put into the cache.
+     *
+     * @param batch whether the batch has to be cleared
+     * @param attributesChanged whether the attributes have to be restored
+     * @throws SQLException if the statement could not be reset and should
+     *         not be reused
+     */
+    void reset(boolean batch, boolean attributesChanged) throws SQLException {
+      var statement = this.statement;
+      ResultSet resultSet = statement.getResultSet();
+      if (resultSet != null) {
+        resultSet.close();
+      }
+      statement.clearParameters();
+      if (batch) {
+        statement.clearBatch();
+      }
+      statement.clearWarnings();
+      if (attributesChanged) {
+        // max rows first as some drivers reject a fetch size larger than max rows
+        statement.setMaxRows(this.maxRows);
+        statement.setQueryTimeout(this.queryTimeout);
+        statement.setFetchSize(this.fetchSize);
+        statement.setFetchDirection(this.fetchDirection);
+        statement.setMaxFieldSize(this.maxFieldSize);
+        // there is no getter, true is the default
+        statement.setEscapeProcessing(true);
+      }
+    }
+
+  }
+
+  /**
+   * The key of a cached statement.
+   */
+  static final class Key {
+
+    private final String sql;
+
+    private final int resultSetType;
+
+    private final int resultSetConcurrency;
+
+    private final int resultSetHoldability;
+
+    Key(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) {
+      this.sql = sql;
+      this.resultSetType = resultSetType;
+      this.resultSetConcurrency = resultSetConcurrency;
+      this.resultSetHoldability = resultSetHoldability;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      var other = (Key) obj;
+      return this.sql.equals(other.sql)
+              && this.resultSetType == other.resultSetType
+              && this.resultSetConcurrency == other.resultSetConcurrency
+              && this.resultSetHoldability == other.resultSetHoldability;
+    }
+
+    @Override
+    public int hashCode() {
+      // by hand to avoid boxing and the varargs array of Objects.hash
+      int result = this.sql.hashCode();
+      result = 31 * result + this.resultSetType;
+      result = 31 * result + this.resultSetConcurrency;
+      return 31 * result + this.resultSetHoldability;
+    }
+
+  }
+
+}
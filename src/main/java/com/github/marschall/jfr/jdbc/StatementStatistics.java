@@ -0,0 +1,77 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregates the execution latencies of statements per fingerprint and
+ * periodically publishes them as {@link JdbcStatementStatisticsEvent}s.
+ * <p>
+ * This allows to get latency distributions with the per call events
+ * disabled.
+ */
+final class StatementStatistics {
+
+  /**
+   * Upper bound on the number of fingerprints tracked per period.
+   */
+  private static final int MAX_FINGERPRINTS = 1024;
+
+  private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+  private StatementStatistics() {
+    throw new AssertionError("not instantiable");
+  }
+
+  static void record(QueryInfo queryInfo, long nanos) {
+    var histogram = queryInfo.histogram;
+    if (histogram == null || histogram.retired) {
+      histogram = lookUpHistogram(queryInfo.fingerprint);
+      if (histogram == null) {
+        return;
+      }
+      queryInfo.histogram = histogram;
+    }
+    histogram.record(nanos);
+  }
+
+  private static LatencyHistogram lookUpHistogram(String fingerprint) {
+    var histogram = HISTOGRAMS.get(fingerprint);
+    if (histogram == null) {
+      if (HISTOGRAMS.size() >= MAX_FINGERPRINTS) {
+        return null;
+      }
+      histogram = HISTOGRAMS.computeIfAbsent(fingerprint, key -> new LatencyHistogram());
+    }
+    return histogram;
+  }
+
+  /**
+   * Emits the statistics event for every fingerprint and resets the
+   * statistics, fingerprints that were not executed during the period
+   * are removed.
+   */
+  static void emit() {
+    for (var iterator = HISTOGRAMS.entrySet().iterator(); iterator.hasNext();) {
+      var entry = iterator.next();
+      var histogram = entry.getValue();
+      var snapshot = histogram.snapshotAndReset();
+      if (snapshot.count == 0L) {
+        histogram.retired = true;
+        iterator.remove();
+        continue;
+      }
+      var event = new JdbcStatementStatisticsEvent();
+      event.fingerprint = entry.getKey();
+      event.fingerprintHash = SqlNormalizer.hash(entry.getKey());
+      event.executionCount = snapshot.count;
+      event.totalTime = snapshot.totalTime;
+      event.p50 = snapshot.percentile(0.5d);
+      event.p90 = snapshot.percentile(0.9d);
+      event.p99 = snapshot.percentile(0.99d);
+      event.maxTime = snapshot.maxTime;
+      event.commit();
+    }
+  }
+
+}
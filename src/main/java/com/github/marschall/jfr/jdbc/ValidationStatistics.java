@@ -0,0 +1,50 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates {@link java.sql.Connection#isValid(int)} calls and
+ * periodically publishes them as {@link JdbcValidationStatisticsEvent}s.
+ * <p>
+ * This allows to quantify the validation overhead of a connection pool
+ * that validates on every borrow without an event per validation.
+ */
+final class ValidationStatistics {
+
+  private static final LongAdder VALIDATION_COUNT = new LongAdder();
+
+  private static final LongAdder INVALID_COUNT = new LongAdder();
+
+  private static final LongAdder TOTAL_TIME = new LongAdder();
+
+  private static final LongAccumulator MAX_TIME = new LongAccumulator(Math::max, 0L);
+
+  private ValidationStatistics() {
+    throw new AssertionError("not instantiable");
+  }
+
+  static void record(long nanos, boolean valid) {
+    VALIDATION_COUNT.increment();
+    if (!valid) {
+      INVALID_COUNT.increment();
+    }
+    TOTAL_TIME.add(nanos);
+    MAX_TIME.accumulate(nanos);
+  }
+
+  static void emit() {
+    // not an atomic snapshot, a concurrent validation may be split between two events
+    long validationCount = VALIDATION_COUNT.sumThenReset();
+    if (validationCount == 0L) {
+      return;
+    }
+    var event = new JdbcValidationStatisticsEvent();
+    event.validationCount = validationCount;
+    event.invalidCount = INVALID_COUNT.sumThenReset();
+    event.totalTime = TOTAL_TIME.sumThenReset();
+    event.maxTime = MAX_TIME.getThenReset();
+    event.commit();
+  }
+
+}
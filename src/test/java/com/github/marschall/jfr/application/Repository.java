@@ -0,0 +1,55 @@
+package com.github.marschall.jfr.application;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.marschall.jfr.framework.Recursion;
+
+/**
+ * Stands in for application code, outside of the packages of the library.
+ */
+public final class Repository {
+
+  private final DataSource dataSource;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public Repository(DataSource dataSource) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  public Integer first(String query) {
+    return this.jdbcTemplate.queryForObject(query, Integer.class);
+  }
+
+  public Integer second(String query) {
+    return this.jdbcTemplate.queryForObject(query, Integer.class);
+  }
+
+  public int firstDirect(String query) throws SQLException {
+    try (var connection = this.dataSource.getConnection();
+         var preparedStatement = connection.prepareStatement(query);
+         var resultSet = preparedStatement.executeQuery()) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
+  public int secondDirect(String query) throws SQLException {
+    try (var connection = this.dataSource.getConnection();
+         var preparedStatement = connection.prepareStatement(query);
+         var resultSet = preparedStatement.executeQuery()) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
+  public Integer deep(String query) {
+    return Recursion.queryForInteger(20, this.jdbcTemplate, query);
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.github.marschall.jfr.framework;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Stands in for a framework with a deep call stack.
+ */
+public final class Recursion {
+
+  private Recursion() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Executes a query below a number of frames of this class.
+   *
+   * @param depth the number of frames
+   * @param jdbcTemplate the template to execute the query with
+   * @param query the query returning a single integer
+   * @return the result of the query
+   */
+  public static Integer queryForInteger(int depth, JdbcTemplate jdbcTemplate, String query) {
+    if (depth == 0) {
+      return jdbcTemplate.queryForObject(query, Integer.class);
+    }
+    return queryForInteger(depth - 1, jdbcTemplate, query);
+  }
+
+}
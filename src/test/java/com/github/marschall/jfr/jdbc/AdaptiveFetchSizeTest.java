@@ -0,0 +1,99 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class AdaptiveFetchSizeTest {
+
+  private static final String QUERY = "SELECT X FROM SYSTEM_RANGE(1, 100) WHERE X > ?";
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+    System.setProperty(AdaptiveFetchSize.PROPERTY, "10, 1000");
+  }
+
+  @AfterEach
+  void tearDown() {
+    System.clearProperty(AdaptiveFetchSize.PROPERTY);
+    this.database.shutdown();
+  }
+
+  @Test
+  void parse() {
+    assertNotNull(AdaptiveFetchSize.parse("10,1000"));
+    assertNotNull(AdaptiveFetchSize.parse(" 10 , 10 "));
+    assertNull(AdaptiveFetchSize.parse("10"));
+    assertNull(AdaptiveFetchSize.parse("0,1000"));
+    assertNull(AdaptiveFetchSize.parse("100,10"));
+    assertNull(AdaptiveFetchSize.parse("ten,1000"));
+  }
+
+  @Test
+  void fetchSize() {
+    var adaptiveFetchSize = new AdaptiveFetchSize(10, 1000);
+    assertEquals(10, adaptiveFetchSize.fetchSize(0));
+    assertEquals(16, adaptiveFetchSize.fetchSize(15));
+    assertEquals(32, adaptiveFetchSize.fetchSize(16));
+    assertEquals(128, adaptiveFetchSize.fetchSize(100));
+    assertEquals(1000, adaptiveFetchSize.fetchSize(1000));
+  }
+
+  @Test
+  void adaptFetchSize() throws Exception {
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcCallEvent.class);
+      recording.enable(JdbcFetchSizeEvent.class);
+    }, () -> {
+      try (var connection = this.dataSource.getConnection();
+           var preparedStatement = connection.prepareStatement(QUERY)) {
+        readAll(preparedStatement, 0);
+        // 100 rows plus one to detect the end, rounded up to a power of two
+        assertEquals(128, readAll(preparedStatement, 0));
+        // the estimate decreases slowly
+        assertEquals(128, readAll(preparedStatement, 90));
+
+        preparedStatement.setFetchSize(5);
+        assertEquals(5, readAll(preparedStatement, 0));
+      }
+    });
+
+    var fetchSizeEvents = eventsOfType(events, JdbcFetchSizeEvent.class);
+    assertEquals(1, fetchSizeEvents.size());
+    var fetchSizeEvent = fetchSizeEvents.get(0);
+    assertEquals(QUERY, fetchSizeEvent.getString("query"));
+    assertEquals(0, fetchSizeEvent.getInt("previousFetchSize"));
+    assertEquals(128, fetchSizeEvent.getInt("fetchSize"));
+    assertEquals(100L, fetchSizeEvent.getLong("rowCount"));
+  }
+
+  private static int readAll(PreparedStatement preparedStatement, int lowerBound) throws SQLException {
+    preparedStatement.setInt(1, lowerBound);
+    try (var resultSet = preparedStatement.executeQuery()) {
+      while (resultSet.next()) {
+        resultSet.getInt(1);
+      }
+    }
+    return preparedStatement.getFetchSize();
+  }
+
+}
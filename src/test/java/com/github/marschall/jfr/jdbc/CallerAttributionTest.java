@@ -0,0 +1,166 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.github.marschall.jfr.application.Repository;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+class CallerAttributionTest {
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+    System.setProperty(CallerAttribution.PROPERTY, "true");
+  }
+
+  @AfterEach
+  void tearDown() {
+    System.clearProperty(CallerAttribution.PROPERTY);
+    System.clearProperty(CallerAttribution.SKIP_PACKAGES_PROPERTY);
+    this.database.shutdown();
+  }
+
+  @Test
+  void callerOutsideSkippedPackages() throws Exception {
+    // the test itself is in the package of the library so attribute to the framework
+    System.setProperty(CallerAttribution.SKIP_PACKAGES_PROPERTY, "");
+    String query = "SELECT 1 FROM SYSTEM_RANGE(1, 1)";
+    List<RecordedEvent> events = this.record(query);
+
+    var callEvents = withQuery(eventsOfType(events, JdbcCallEvent.class), query);
+    assertEquals(3, callEvents.size());
+    for (RecordedEvent callEvent : callEvents) {
+      // JdbcTemplate or one of its callbacks
+      String callerClass = callEvent.getString("callerClass");
+      assertTrue(callerClass.startsWith(JdbcTemplate.class.getName()), callerClass);
+      assertNotNull(callEvent.getString("callerMethod"));
+    }
+    var operationEvents = withQuery(eventsOfType(events, JdbcOperationEvent.class), query);
+    assertFalse(operationEvents.isEmpty());
+    for (RecordedEvent operationEvent : operationEvents) {
+      String callerClass = operationEvent.getString("callerClass");
+      assertTrue(callerClass.startsWith(JdbcTemplate.class.getName()), callerClass);
+    }
+  }
+
+  @Test
+  void skipFrameworkPackages() throws Exception {
+    String query = "SELECT 2 FROM SYSTEM_RANGE(1, 1)";
+    var repository = new Repository(this.dataSource);
+    List<RecordedEvent> events = EventRecorder.record(() -> {
+      for (int i = 0; i < 3; i++) {
+        repository.first(query);
+        repository.second(query);
+      }
+    });
+
+    var callEvents = withQuery(eventsOfType(events, JdbcCallEvent.class), query);
+    assertEquals(6, callEvents.size());
+    for (RecordedEvent callEvent : callEvents) {
+      assertEquals(Repository.class.getName(), callEvent.getString("callerClass"));
+      // both share the call site in JdbcTemplate, the caller is cached until it is refreshed
+      assertEquals("first", callEvent.getString("callerMethod"));
+    }
+  }
+
+  @Test
+  void directCallSites() throws Exception {
+    String query = "SELECT 5 FROM SYSTEM_RANGE(1, 1)";
+    var repository = new Repository(this.dataSource);
+    List<RecordedEvent> events = EventRecorder.record(() -> {
+      for (int i = 0; i < 3; i++) {
+        repository.firstDirect(query);
+        repository.secondDirect(query);
+      }
+    });
+
+    var callEvents = withQuery(eventsOfType(events, JdbcCallEvent.class), query);
+    assertEquals(6, callEvents.size());
+    // the same query string from two call sites
+    for (int i = 0; i < callEvents.size(); i++) {
+      RecordedEvent callEvent = callEvents.get(i);
+      assertEquals(Repository.class.getName(), callEvent.getString("callerClass"));
+      assertEquals(i % 2 == 0 ? "firstDirect" : "secondDirect", callEvent.getString("callerMethod"));
+    }
+    var prepareEvents = withQuery(eventsOfType(events, JdbcOperationEvent.class), query).stream()
+            .filter(event -> "prepareStatement".equals(event.getString("operationName")))
+            .collect(Collectors.toList());
+    assertEquals(6, prepareEvents.size());
+    for (int i = 0; i < prepareEvents.size(); i++) {
+      assertEquals(i % 2 == 0 ? "firstDirect" : "secondDirect", prepareEvents.get(i).getString("callerMethod"));
+    }
+  }
+
+  @Test
+  void deepStack() throws Exception {
+    System.setProperty(CallerAttribution.SKIP_PACKAGES_PROPERTY,
+            CallerAttribution.DEFAULT_SKIP_PACKAGES + ",com.github.marschall.jfr.framework.");
+    String query = "SELECT 4 FROM SYSTEM_RANGE(1, 1)";
+    var repository = new Repository(this.dataSource);
+    List<RecordedEvent> events = EventRecorder.record(() -> {
+      for (int i = 0; i < 3; i++) {
+        repository.deep(query);
+      }
+    });
+
+    var callEvents = withQuery(eventsOfType(events, JdbcCallEvent.class), query);
+    assertEquals(3, callEvents.size());
+    for (RecordedEvent callEvent : callEvents) {
+      assertEquals(Repository.class.getName(), callEvent.getString("callerClass"));
+      assertEquals("deep", callEvent.getString("callerMethod"));
+    }
+  }
+
+  @Test
+  void disabled() throws Exception {
+    System.clearProperty(CallerAttribution.PROPERTY);
+    String query = "SELECT 3 FROM SYSTEM_RANGE(1, 1)";
+    List<RecordedEvent> events = this.record(query);
+
+    for (RecordedEvent callEvent : withQuery(eventsOfType(events, JdbcCallEvent.class), query)) {
+      assertNull(callEvent.getString("callerClass"));
+    }
+  }
+
+  private List<RecordedEvent> record(String query) throws Exception {
+    return EventRecorder.record(() -> {
+      var jdbcTemplate = new JdbcTemplate(this.dataSource);
+      for (int i = 0; i < 3; i++) {
+        jdbcTemplate.queryForObject(query, Integer.class);
+      }
+    });
+  }
+
+  private static List<RecordedEvent> withQuery(List<RecordedEvent> events, String query) {
+    return events.stream()
+            .filter(event -> query.equals(event.getString("query")))
+            .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+            .collect(Collectors.toList());
+  }
+
+}
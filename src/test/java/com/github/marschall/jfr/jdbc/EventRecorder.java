@@ -0,0 +1,64 @@
+package com.github.marschall.jfr.jdbc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Records the JDBC events generated by a block of code.
+ */
+final class EventRecorder {
+
+  private EventRecorder() {
+    throw new AssertionError("not instantiable");
+  }
+
+  static List<RecordedEvent> record(JdbcBlock block) throws Exception {
+    return record(recording -> {
+      recording.enable(JdbcOperationEvent.class);
+      recording.enable(JdbcCallEvent.class);
+      recording.enable(JdbcFetchEvent.class);
+      recording.enable(JdbcTransactionEvent.class);
+      // emitted explicitly by tests
+      recording.enable(JdbcStatementStatisticsEvent.class).withPeriod(Duration.ofHours(1L));
+    }, block);
+  }
+
+  static List<RecordedEvent> record(Consumer<Recording> configuration, JdbcBlock block) throws Exception {
+    Path file = Files.createTempFile("jfr-jdbc", ".jfr");
+    try {
+      try (var recording = new Recording()) {
+        configuration.accept(recording);
+        recording.start();
+        block.run();
+        recording.stop();
+        recording.dump(file);
+      }
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  static List<RecordedEvent> eventsOfType(List<RecordedEvent> events, Class<? extends Event> eventClass) {
+    return events.stream()
+            .filter(event -> event.getEventType().getName().equals(eventClass.getName()))
+            .collect(Collectors.toList());
+  }
+
+  @FunctionalInterface
+  interface JdbcBlock {
+
+    void run() throws Exception;
+
+  }
+
+}
@@ -0,0 +1,111 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import jdk.jfr.FlightRecorder;
+
+class EventSamplerTest {
+
+  @AfterEach
+  void tearDown() {
+    EventSampler.configure(EventSampler.UNLIMITED, 1L, EventSampler.UNLIMITED);
+  }
+
+  @Test
+  void firstThenInterval() {
+    EventSampler.configure(2L, 3L, EventSampler.UNLIMITED);
+    var queryInfo = QueryInfo.of("SELECT 1 FROM sampler_first_then_interval");
+    StringBuilder sampled = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      sampled.append(EventSampler.sample(queryInfo) ? 'x' : '.');
+    }
+    assertEquals("xxx..x..x.", sampled.toString());
+  }
+
+  @Test
+  void throttle() {
+    EventSampler.configure(EventSampler.UNLIMITED, 1L, 5L);
+    int sampled = 0;
+    for (int i = 0; i < 10; i++) {
+      if (EventSampler.sample()) {
+        sampled += 1;
+      }
+    }
+    // the window may have moved
+    assertTrue(sampled >= 5);
+    assertTrue(sampled < 10);
+  }
+
+  @Test
+  void inactive() {
+    assertTrue(EventSampler.sample());
+    EventSampler.configure(EventSampler.UNLIMITED, 1L, 0L);
+    assertFalse(EventSampler.sample());
+  }
+
+  @Test
+  void sampledOutIsShared() {
+    var event = JdbcOperationEvent.sampledOut();
+    assertSame(event, JdbcOperationEvent.sampledOut());
+    event.begin();
+    event.complete();
+    assertFalse(event.shouldCommit());
+  }
+
+  @Test
+  void parseAndCombine() {
+    var setting = new SamplingSetting();
+    assertEquals("all", setting.combine(Set.of()));
+    assertEquals("all", setting.combine(Set.of("all", "first=10, interval=5")));
+    assertEquals("first=10, interval=5", setting.combine(Set.of("first=2, interval=5", "first=10, interval=20")));
+    assertEquals("first=0, interval=100, throttle=50/s", setting.combine(Set.of("interval=100, throttle=50/s")));
+    assertEquals("throttle=50/s", setting.combine(Set.of("throttle=10/s", "throttle=50/s")));
+    assertEquals("all", setting.combine(Set.of("invalid")));
+  }
+
+  @Test
+  void recordingSettings() throws Exception {
+    assumeTrue(FlightRecorder.getFlightRecorder().getRecordings().isEmpty(), "other recording running");
+    var database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    try {
+      var dataSource = new JfrDataSource(database);
+      var events = EventRecorder.record(recording -> {
+        recording.enable(JdbcOperationEvent.class)
+                 .with("sampling", "first=2, interval=3");
+      }, () -> {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.createStatement()) {
+          for (int i = 0; i < 10; i++) {
+            try (var resultSet = statement.executeQuery("SELECT " + i + " FROM DUAL")) {
+              resultSet.next();
+            }
+          }
+        }
+      });
+
+      long executeQueryEvents = eventsOfType(events, JdbcOperationEvent.class).stream()
+              .filter(event -> "executeQuery".equals(event.getString("operationName")))
+              .filter(event -> "SELECT ? FROM DUAL".equals(event.getString("fingerprint")))
+              .count();
+      // 0 and 1 as the first occurrences, then 2, 5 and 8
+      assertEquals(5L, executeQueryEvents);
+    } finally {
+      database.shutdown();
+    }
+  }
+
+}
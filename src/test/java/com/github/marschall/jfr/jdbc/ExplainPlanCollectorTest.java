@@ -0,0 +1,157 @@
+package com.github.marschall.jfr.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+class ExplainPlanCollectorTest {
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+    try (var connection = this.database.getConnection();
+         var statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE explain_table(id INT PRIMARY KEY, val VARCHAR(10))");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.dataSource.close();
+    this.database.shutdown();
+  }
+
+  @Test
+  void explainSlowCall() throws Exception {
+    String query = "SELECT val FROM explain_table WHERE id = ?";
+    var planEvent = new CompletableFuture<RecordedEvent>();
+    try (var stream = new RecordingStream()) {
+      stream.enable(JdbcExplainPlanEvent.class).with("callThreshold", "0 ns");
+      stream.onEvent(JdbcExplainPlanEvent.class.getName(), event -> {
+        if (query.equals(event.getString("query"))) {
+          planEvent.complete(event);
+        }
+      });
+      stream.startAsync();
+
+      try (var connection = this.dataSource.getConnection();
+           var preparedStatement = connection.prepareStatement(query)) {
+        for (int i = 0; i < 3; i++) {
+          preparedStatement.setInt(1, i);
+          try (var resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+          }
+        }
+      }
+
+      var event = planEvent.get(30L, TimeUnit.SECONDS);
+      assertNull(event.getString("error"));
+      String plan = event.getString("plan");
+      assertNotNull(plan);
+      assertTrue(plan.contains("EXPLAIN_TABLE"), plan);
+      assertTrue(event.getDuration("callDuration").toNanos() > 0L);
+    }
+  }
+
+  @Test
+  void notExplained() throws Exception {
+    String query = "SELECT val FROM explain_table WHERE id = 1; DELETE FROM explain_table";
+    var planEvent = new CompletableFuture<RecordedEvent>();
+    try (var stream = new RecordingStream()) {
+      stream.enable(JdbcExplainPlanEvent.class).with("callThreshold", "0 ns");
+      stream.onEvent(JdbcExplainPlanEvent.class.getName(), event -> {
+        if (query.equals(event.getString("query"))) {
+          planEvent.complete(event);
+        }
+      });
+      stream.startAsync();
+
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        statement.execute(query);
+      }
+
+      var event = planEvent.get(30L, TimeUnit.SECONDS);
+      assertNull(event.getString("plan"));
+      assertEquals("only single SELECT and WITH statements are explained", event.getString("error"));
+    }
+  }
+
+  @Test
+  void isSingleQuery() {
+    assertTrue(ExplainPlanCollector.isSingleQuery("SELECT 1"));
+    assertTrue(ExplainPlanCollector.isSingleQuery("  select val FROM t WHERE val = 'a;b'"));
+    assertTrue(ExplainPlanCollector.isSingleQuery("WITH x AS (SELECT 1) SELECT * FROM x"));
+    assertTrue(ExplainPlanCollector.isSingleQuery("SELECT 'it''s;' FROM \"t;\""));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECT 1; DELETE FROM t"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECT 1;"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("DELETE FROM t"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECTED"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("WITH x AS (DELETE FROM t RETURNING *) SELECT 1; DROP TABLE t"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECT 'a\\'; DELETE FROM t; --'"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECT 1 -- '\n; DELETE FROM t"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECT 1 /* ' */; DELETE FROM t"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECT $$ ' $$; DELETE FROM t; '"));
+    assertFalse(ExplainPlanCollector.isSingleQuery("SELECT 'unterminated"));
+  }
+
+  @Test
+  void close() throws Exception {
+    var collector = new ExplainPlanCollector(this.database);
+    var before = explainThreads();
+    collector.callCompleted(QueryInfo.of("SELECT val FROM explain_table WHERE id = 42"), Long.MAX_VALUE);
+    var started = explainThreads();
+    started.removeAll(before);
+    assertEquals(1, started.size());
+
+    collector.close();
+    var worker = started.get(0);
+    worker.join(TimeUnit.SECONDS.toMillis(30L));
+    assertFalse(worker.isAlive());
+
+    // not started again
+    collector.callCompleted(QueryInfo.of("SELECT val FROM explain_table WHERE id = 43"), Long.MAX_VALUE);
+    var after = explainThreads();
+    after.removeAll(before);
+    assertTrue(after.isEmpty());
+  }
+
+  private static List<Thread> explainThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> "jfr-jdbc-explain".equals(thread.getName()))
+            .filter(Thread::isAlive)
+            .collect(Collectors.toList());
+  }
+
+  @Test
+  void parseNanos() {
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(20L), CallThresholdSetting.parseNanos("20 ms"));
+    assertEquals(TimeUnit.SECONDS.toNanos(1L), CallThresholdSetting.parseNanos("1 s"));
+    assertEquals(Long.MAX_VALUE, CallThresholdSetting.parseNanos("invalid"));
+  }
+
+}
@@ -0,0 +1,250 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+class JfrConnectionTest {
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+    try (var connection = this.database.getConnection();
+         var statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE test_table(id INT PRIMARY KEY)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.database.shutdown();
+  }
+
+  @Test
+  void transaction() throws Exception {
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection()) {
+        connection.setAutoCommit(false);
+        try (var preparedStatement = connection.prepareStatement("INSERT INTO test_table(id) VALUES (?)")) {
+          preparedStatement.setInt(1, 1);
+          preparedStatement.executeUpdate();
+          preparedStatement.setInt(1, 2);
+          preparedStatement.executeUpdate();
+        }
+        connection.commit();
+
+        try (var statement = connection.createStatement()) {
+          statement.executeUpdate("DELETE FROM test_table");
+        }
+        connection.rollback();
+      }
+    });
+
+    var transactionEvents = eventsOfType(events, JdbcTransactionEvent.class);
+    assertEquals(2, transactionEvents.size());
+
+    var committed = transactionEvents.get(0);
+    assertEquals("commit", committed.getString("outcome"));
+    assertEquals(2L, committed.getLong("statementCount"));
+    assertEquals(2L, committed.getLong("rowCount"));
+    assertEquals("READ_COMMITTED", committed.getString("isolationLevel"));
+    assertTrue(committed.getDuration("statementTime").compareTo(committed.getDuration()) <= 0);
+
+    var rolledBack = transactionEvents.get(1);
+    assertEquals("rollback", rolledBack.getString("outcome"));
+    assertEquals(1L, rolledBack.getLong("statementCount"));
+    assertEquals(2L, rolledBack.getLong("rowCount"));
+  }
+
+  @Test
+  void failedCommit() throws Exception {
+    DataSource failing = new SingleConnectionDataSource(failingCommit(this.database.getConnection()), false);
+    var events = EventRecorder.record(() -> {
+      try (var connection = new JfrDataSource(failing).getConnection()) {
+        connection.setAutoCommit(false);
+        try (var statement = connection.createStatement()) {
+          statement.executeUpdate("INSERT INTO test_table(id) VALUES (1)");
+        }
+        assertThrows(SQLException.class, connection::commit);
+
+        try (var statement = connection.createStatement()) {
+          statement.executeUpdate("DELETE FROM test_table");
+        }
+        assertThrows(SQLException.class, connection::rollback);
+      }
+    });
+
+    var transactionEvents = eventsOfType(events, JdbcTransactionEvent.class);
+    assertEquals(2, transactionEvents.size());
+    assertEquals("commitFailed", transactionEvents.get(0).getString("outcome"));
+    assertEquals("rollbackFailed", transactionEvents.get(1).getString("outcome"));
+  }
+
+  private static Connection failingCommit(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(JfrConnectionTest.class.getClassLoader(), new Class<?>[] {Connection.class},
+        (proxy, method, arguments) -> {
+          if (method.getName().equals("commit") || method.getName().equals("rollback")) {
+            throw new SQLException(method.getName() + " failed");
+          }
+          try {
+            return method.invoke(connection, arguments);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+  }
+
+  @Test
+  void autoCommitNoTransaction() throws Exception {
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        statement.executeUpdate("INSERT INTO test_table(id) VALUES (1)");
+      }
+    });
+
+    assertEquals(0, eventsOfType(events, JdbcTransactionEvent.class).size());
+  }
+
+  @Test
+  void repeatedQuery() throws Exception {
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcRepeatedQueryEvent.class).with("repeatThreshold", "5");
+    }, () -> {
+      try (var connection = this.dataSource.getConnection()) {
+        connection.setAutoCommit(false);
+        try (var statement = connection.createStatement()) {
+          for (int i = 0; i < 12; i++) {
+            try (var resultSet = statement.executeQuery("SELECT id FROM test_table WHERE id = " + i)) {
+              resultSet.next();
+            }
+          }
+          statement.executeUpdate("INSERT INTO test_table(id) VALUES (1)");
+        }
+        connection.commit();
+      }
+    });
+
+    var repeatedQueryEvents = eventsOfType(events, JdbcRepeatedQueryEvent.class);
+    assertEquals(1, repeatedQueryEvents.size());
+    var repeatedQuery = repeatedQueryEvents.get(0);
+    assertEquals("SELECT id FROM test_table WHERE id = ?", repeatedQuery.getString("fingerprint"));
+    assertEquals(12L, repeatedQuery.getLong("executionCount"));
+    assertEquals("commit", repeatedQuery.getString("scopeEnd"));
+    assertTrue(repeatedQuery.getDuration("totalTime").toNanos() > 0L);
+  }
+
+  @Test
+  void repeatedQueryAutoCommit() throws Exception {
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcRepeatedQueryEvent.class).with("repeatThreshold", "5");
+    }, () -> {
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        // every statement is its own scope
+        for (int i = 0; i < 12; i++) {
+          try (var resultSet = statement.executeQuery("SELECT id FROM test_table WHERE id = " + i)) {
+            resultSet.next();
+          }
+        }
+        connection.beginRequest();
+        for (int i = 0; i < 6; i++) {
+          try (var resultSet = statement.executeQuery("SELECT id FROM test_table WHERE id = " + i)) {
+            resultSet.next();
+          }
+        }
+        connection.endRequest();
+      }
+    });
+
+    var repeatedQueryEvents = eventsOfType(events, JdbcRepeatedQueryEvent.class);
+    assertEquals(1, repeatedQueryEvents.size());
+    var repeatedQuery = repeatedQueryEvents.get(0);
+    assertEquals(6L, repeatedQuery.getLong("executionCount"));
+    assertEquals("endRequest", repeatedQuery.getString("scopeEnd"));
+  }
+
+  @Test
+  void lifecycle() throws Exception {
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection()) {
+        assertTrue(connection.isValid(1));
+        connection.setNetworkTimeout(Runnable::run, 1_000);
+      }
+    });
+
+    var connectionEvents = eventsOfType(events, JdbcOperationEvent.class).stream()
+            .filter(event -> "Connection".equals(event.getString("operationObject")))
+            // events are not necessarily read in chronological order
+            .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+            .collect(Collectors.toList());
+    var operationNames = connectionEvents.stream()
+            .map(event -> event.getString("operationName"))
+            .collect(Collectors.toList());
+    assertEquals(List.of("isValid", "setNetworkTimeout", "close"), operationNames);
+    long objectId = connectionEvents.get(0).getLong("objectId");
+    assertNotEquals(0L, objectId);
+    for (RecordedEvent connectionEvent : connectionEvents) {
+      assertEquals(objectId, connectionEvent.getLong("objectId"));
+    }
+  }
+
+  @Test
+  void validationStatistics() throws Exception {
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcOperationEvent.class);
+      // emitted explicitly by the test
+      recording.enable(JdbcValidationStatisticsEvent.class).withPeriod(Duration.ofHours(1L));
+    }, () -> {
+      try (var connection = this.dataSource.getConnection()) {
+        for (int i = 0; i < 5; i++) {
+          connection.isValid(1);
+        }
+      }
+      ValidationStatistics.emit();
+    });
+
+    long isValidEvents = eventsOfType(events, JdbcOperationEvent.class).stream()
+            .filter(event -> "isValid".equals(event.getString("operationName")))
+            .count();
+    assertEquals(0L, isValidEvents);
+
+    var statisticsEvents = eventsOfType(events, JdbcValidationStatisticsEvent.class);
+    assertEquals(1, statisticsEvents.size());
+    var statistics = statisticsEvents.get(0);
+    assertEquals(5L, statistics.getLong("validationCount"));
+    assertEquals(0L, statistics.getLong("invalidCount"));
+    assertTrue(statistics.getDuration("totalTime").compareTo(statistics.getDuration("maxTime")) >= 0);
+  }
+
+}
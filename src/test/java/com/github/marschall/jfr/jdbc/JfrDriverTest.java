@@ -3,22 +3,43 @@ package com.github.marschall.jfr.jdbc;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
 class JfrDriverTest {
 
+  private Recording recording;
+
   @BeforeAll
   static void loadDriver() {
     org.h2.Driver.load();
   }
 
+  @BeforeEach
+  void startRecording() {
+    // connections are only wrapped while there is a recording
+    this.recording = new Recording();
+    this.recording.enable(JdbcOperationEvent.class);
+    this.recording.start();
+  }
+
+  @AfterEach
+  void stopRecording() {
+    this.recording.close();
+  }
+
   @Test
   void connect() throws SQLException {
     try (var connection = DriverManager.getConnection("jdbc:jfr:h2:mem:")) {
@@ -42,4 +63,13 @@ class JfrDriverTest {
     }
   }
 
+  @Test
+  void connectWithoutRecording() throws SQLException {
+    this.recording.close();
+    assumeTrue(FlightRecorder.getFlightRecorder().getRecordings().isEmpty(), "other recording running");
+    try (var connection = DriverManager.getConnection("jdbc:jfr:h2:mem:")) {
+      assertFalse(connection instanceof JfrConnection);
+    }
+  }
+
 }
@@ -0,0 +1,184 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+class JfrPreparedStatementTest {
+
+  private static final String INSERT = "INSERT INTO test_table(id) VALUES (?)";
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+    try (var connection = this.database.getConnection();
+         var statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE test_table(id INT PRIMARY KEY)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.database.shutdown();
+  }
+
+  private static List<RecordedEvent> callEvents(List<RecordedEvent> events, String query) {
+    return eventsOfType(events, JdbcCallEvent.class).stream()
+            .filter(event -> query.equals(event.getString("query")))
+            .collect(Collectors.toList());
+  }
+
+  @Test
+  void batch() throws Exception {
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection();
+           var preparedStatement = connection.prepareStatement(INSERT)) {
+        int id = 0;
+        for (int batchSize : new int[] {3, 2}) {
+          for (int i = 0; i < batchSize; i++) {
+            preparedStatement.setInt(1, id++);
+            preparedStatement.addBatch();
+          }
+          preparedStatement.executeBatch();
+        }
+      }
+    });
+
+    var callEvents = callEvents(events, INSERT);
+    assertEquals(1, callEvents.size());
+    var callEvent = callEvents.get(0);
+    assertEquals(2L, callEvent.getLong("batchCount"));
+    assertEquals(5L, callEvent.getLong("batchStatementCount"));
+    assertEquals(3L, callEvent.getLong("maxBatchSize"));
+    assertEquals(5L, callEvent.getLong("rowCount"));
+  }
+
+  @Test
+  void executeUpdate() throws Exception {
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection();
+           var preparedStatement = connection.prepareStatement(INSERT)) {
+        preparedStatement.setInt(1, 1);
+        preparedStatement.executeUpdate();
+        preparedStatement.setInt(1, 2);
+        preparedStatement.executeLargeUpdate();
+        preparedStatement.setInt(1, 3);
+        preparedStatement.execute();
+      }
+    });
+
+    var callEvents = callEvents(events, INSERT);
+    assertEquals(1, callEvents.size());
+    var callEvent = callEvents.get(0);
+    assertEquals(3L, callEvent.getLong("rowCount"));
+    assertTrue(callEvent.getDouble("rowsPerMillisecond") > 0.0d);
+  }
+
+  @Test
+  void statementCache() throws Exception {
+    String select = "SELECT id FROM test_table WHERE id = ?";
+    System.setProperty(StatementCache.SIZE_PROPERTY, "1");
+    // simulates a connection pool that keeps the physical connection open
+    var pool = new SingleConnectionDataSource(this.database.getConnection(), true);
+    var dataSource = new JfrDataSource(pool);
+    try {
+      var events = EventRecorder.record(recording -> {
+        recording.enable(JdbcCallEvent.class);
+        recording.enable(JdbcStatementCacheStatisticsEvent.class).withPeriod(Duration.ofHours(1L));
+      }, () -> {
+        PreparedStatement first;
+        PreparedStatement firstDelegate;
+        PreparedStatement selectDelegate;
+        try (var connection = dataSource.getConnection()) {
+          try (var preparedStatement = connection.prepareStatement(INSERT)) {
+            first = preparedStatement;
+            firstDelegate = preparedStatement.unwrap(PreparedStatement.class);
+            preparedStatement.setQueryTimeout(10);
+            preparedStatement.setMaxRows(5);
+            preparedStatement.setInt(1, 1);
+            preparedStatement.executeUpdate();
+          }
+          assertTrue(first.isClosed());
+          assertFalse(firstDelegate.isClosed());
+
+          try (var preparedStatement = connection.prepareStatement(INSERT)) {
+            assertSame(firstDelegate, preparedStatement.unwrap(PreparedStatement.class));
+            assertFalse(preparedStatement.isClosed());
+            // the attributes of the previous use are restored
+            assertEquals(0, preparedStatement.getQueryTimeout());
+            assertEquals(0, preparedStatement.getMaxRows());
+            // the previous wrapper can not use the reused statement
+            assertThrows(SQLException.class, first::executeUpdate);
+            preparedStatement.setInt(1, 2);
+            preparedStatement.executeUpdate();
+          }
+          try (var preparedStatement = connection.prepareStatement(select)) {
+            selectDelegate = preparedStatement.unwrap(PreparedStatement.class);
+            preparedStatement.setInt(1, 1);
+            var resultSet = preparedStatement.executeQuery();
+            assertTrue(resultSet.next());
+            // the open result set is closed on logical close
+            preparedStatement.close();
+            assertTrue(resultSet.unwrap(ResultSet.class).isClosed());
+          }
+          // evicted by the select
+          assertTrue(firstDelegate.isClosed());
+          assertFalse(selectDelegate.isClosed());
+        }
+        // closed with the connection even though the pool keeps the physical connection open
+        assertTrue(selectDelegate.isClosed());
+        try (var connection = dataSource.getConnection();
+             var preparedStatement = connection.prepareStatement(select)) {
+          assertNotSame(selectDelegate, preparedStatement.unwrap(PreparedStatement.class));
+        }
+        StatementCache.emit();
+      });
+
+      var insertEvents = callEvents(events, INSERT);
+      assertEquals(2, insertEvents.size());
+      for (RecordedEvent insertEvent : insertEvents) {
+        assertEquals(1L, insertEvent.getLong("rowCount"));
+      }
+      assertEquals(2, callEvents(events, select).size());
+
+      var statisticsEvents = eventsOfType(events, JdbcStatementCacheStatisticsEvent.class);
+      assertEquals(1, statisticsEvents.size());
+      var statistics = statisticsEvents.get(0);
+      assertTrue(statistics.getLong("hits") >= 1L);
+      assertTrue(statistics.getLong("misses") >= 3L);
+      assertTrue(statistics.getLong("evictions") >= 1L);
+    } finally {
+      System.clearProperty(StatementCache.SIZE_PROPERTY);
+      pool.destroy();
+    }
+  }
+
+}
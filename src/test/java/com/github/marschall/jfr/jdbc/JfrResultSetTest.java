@@ -0,0 +1,156 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+class JfrResultSetTest {
+
+  private static final String QUERY = "SELECT X FROM SYSTEM_RANGE(1, 100)";
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.database.shutdown();
+  }
+
+  @Test
+  void aggregatedFetch() throws Exception {
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection();
+           var preparedStatement = connection.prepareStatement(QUERY);
+           var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          resultSet.getInt(1);
+        }
+      }
+    });
+
+    var fetchEvents = eventsOfType(events, JdbcFetchEvent.class).stream()
+            .filter(event -> QUERY.equals(event.getString("query")))
+            .collect(Collectors.toList());
+    assertEquals(1, fetchEvents.size());
+    var fetchEvent = fetchEvents.get(0);
+    assertEquals(100L, fetchEvent.getLong("rowCount"));
+    Duration driverTime = fetchEvent.getDuration("driverTime");
+    Duration maxRowTime = fetchEvent.getDuration("maxRowTime");
+    assertTrue(driverTime.compareTo(maxRowTime) >= 0);
+
+    long nextEvents = eventsOfType(events, JdbcOperationEvent.class).stream()
+            .filter(event -> "next".equals(event.getString("operationName")))
+            .count();
+    assertEquals(0L, nextEvents);
+  }
+
+  @Test
+  void lobs() throws Exception {
+    try (var connection = this.database.getConnection();
+         var statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE lob_table(id INT PRIMARY KEY, b BLOB, c CLOB)");
+      statement.execute("INSERT INTO lob_table(id, b, c) VALUES (1, X'0102030405060708', 'abcdefghij')");
+    }
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcLobEvent.class);
+    }, () -> {
+      try (var connection = this.dataSource.getConnection();
+           var preparedStatement = connection.prepareStatement("SELECT b, c FROM lob_table");
+           var resultSet = preparedStatement.executeQuery()) {
+        assertTrue(resultSet.next());
+        try (InputStream stream = resultSet.getBinaryStream(1)) {
+          assertEquals(8, stream.readAllBytes().length);
+        }
+        Blob blob = resultSet.getBlob(1);
+        assertEquals(4, blob.getBytes(1L, 4).length);
+        try (InputStream stream = blob.getBinaryStream()) {
+          assertEquals(8, stream.readAllBytes().length);
+        }
+        Clob clob = resultSet.getClob(2);
+        try (Reader reader = clob.getCharacterStream()) {
+          assertEquals(10, reader.transferTo(Writer.nullWriter()));
+        }
+        // the driver must get its own LOBs, reading them is not an application read
+        try (var insert = connection.prepareStatement("INSERT INTO lob_table(id, b, c) VALUES (2, ?, ?)")) {
+          insert.setBlob(1, blob);
+          insert.setClob(2, clob);
+          assertEquals(1, insert.executeUpdate());
+        }
+        blob.free();
+        clob.free();
+      }
+    });
+
+    var lobEvents = eventsOfType(events, JdbcLobEvent.class);
+    assertEquals(3, lobEvents.size());
+
+    var binaryStream = lobEvents.get(0);
+    assertEquals("BinaryStream", binaryStream.getString("lobType"));
+    assertEquals("SELECT b, c FROM lob_table", binaryStream.getString("query"));
+    assertEquals(8L, binaryStream.getLong("bytes"));
+
+    var blob = lobEvents.get(1);
+    assertEquals("Blob", blob.getString("lobType"));
+    assertEquals(12L, blob.getLong("bytes"));
+
+    var clob = lobEvents.get(2);
+    assertEquals("Clob", clob.getString("lobType"));
+    assertEquals(10L, clob.getLong("characters"));
+  }
+
+  @Test
+  void fetchedBytes() throws Exception {
+    String query = "SELECT X, CAST(X AS VARCHAR) FROM SYSTEM_RANGE(1, 10)";
+    System.setProperty(FetchedBytes.PROPERTY, "true");
+    List<RecordedEvent> events;
+    try {
+      events = EventRecorder.record(() -> {
+        try (var connection = this.dataSource.getConnection();
+             var preparedStatement = connection.prepareStatement(query);
+             var resultSet = preparedStatement.executeQuery()) {
+          while (resultSet.next()) {
+            resultSet.getLong(1);
+            resultSet.getString(2);
+          }
+        }
+      });
+    } finally {
+      System.clearProperty(FetchedBytes.PROPERTY);
+    }
+
+    var callEvents = eventsOfType(events, JdbcCallEvent.class).stream()
+            .filter(event -> query.equals(event.getString("query")))
+            .collect(Collectors.toList());
+    assertEquals(1, callEvents.size());
+    // 10 longs, 9 one digit strings and one two digit string
+    assertEquals(10L * Long.BYTES + 9L + 2L, callEvents.get(0).getLong("fetchedBytes"));
+  }
+
+}
@@ -0,0 +1,257 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+
+class JfrStatementTest {
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+    try (var connection = this.database.getConnection();
+         var statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE test_table(id INT PRIMARY KEY)");
+      statement.execute("INSERT INTO test_table(id) SELECT X FROM SYSTEM_RANGE(1, 10)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.database.shutdown();
+  }
+
+  @Test
+  void updateCounts() throws Exception {
+    String update = "UPDATE test_table SET id = id + 100 WHERE id <= 3";
+    String delete = "DELETE FROM test_table WHERE id <= 10";
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        statement.executeUpdate(update);
+        statement.execute(delete);
+      }
+    });
+
+    var callEvents = eventsOfType(events, JdbcCallEvent.class).stream()
+            .collect(Collectors.toMap(event -> event.getString("query"), event -> event.getLong("rowCount")));
+    assertEquals(Long.valueOf(3L), callEvents.get(update));
+    assertEquals(Long.valueOf(7L), callEvents.get(delete));
+  }
+
+  @Test
+  void failed() throws Exception {
+    String query = "SELECT id FROM missing_table";
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        assertThrows(SQLException.class, () -> statement.executeQuery(query));
+        statement.executeUpdate("UPDATE test_table SET id = id WHERE id = 1");
+      }
+    });
+
+    var callEvents = eventsOfType(events, JdbcCallEvent.class).stream()
+            .collect(Collectors.toMap(event -> event.getString("query"), event -> event.getBoolean("failed")));
+    assertEquals(Boolean.TRUE, callEvents.get(query));
+    assertEquals(Boolean.FALSE, callEvents.get("UPDATE test_table SET id = id WHERE id = 1"));
+    var executeQuery = eventsOfType(events, JdbcOperationEvent.class).stream()
+            .filter(event -> "executeQuery".equals(event.getString("operationName")))
+            .findFirst()
+            .orElseThrow();
+    assertTrue(executeQuery.getBoolean("failed"));
+  }
+
+  @Test
+  void batch() throws Exception {
+    String firstInsert = "INSERT INTO test_table(id) VALUES (11)";
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection()) {
+        connection.setAutoCommit(false);
+        try (var statement = connection.createStatement()) {
+          statement.addBatch(firstInsert);
+          statement.addBatch("INSERT INTO test_table(id) VALUES (12)");
+          statement.addBatch("DELETE FROM test_table WHERE id <= 2");
+          statement.executeBatch();
+        }
+        connection.commit();
+      }
+    });
+
+    var callEvents = eventsOfType(events, JdbcCallEvent.class);
+    assertEquals(1, callEvents.size());
+    var callEvent = callEvents.get(0);
+    assertEquals(firstInsert, callEvent.getString("query"));
+    assertEquals(1L, callEvent.getLong("batchCount"));
+    assertEquals(3L, callEvent.getLong("batchStatementCount"));
+    assertEquals(3L, callEvent.getLong("maxBatchSize"));
+    assertEquals(4L, callEvent.getLong("rowCount"));
+
+    var transactionEvents = eventsOfType(events, JdbcTransactionEvent.class);
+    assertEquals(1, transactionEvents.size());
+    var transactionEvent = transactionEvents.get(0);
+    assertEquals(1L, transactionEvent.getLong("statementCount"));
+    assertEquals(4L, transactionEvent.getLong("rowCount"));
+  }
+
+  @Test
+  void queryTextDictionary() throws Exception {
+    assumeTrue(FlightRecorder.getFlightRecorder().getRecordings().isEmpty(), "other recording running");
+    String query = "SELECT id FROM test_table WHERE id = 1";
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcCallEvent.class);
+      recording.enable(JdbcQueryTextEvent.class);
+    }, () -> {
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        for (int i = 0; i < 3; i++) {
+          try (var resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+          }
+        }
+      }
+    });
+
+    var queryTextEvents = eventsOfType(events, JdbcQueryTextEvent.class).stream()
+            .filter(event -> query.equals(event.getString("query")))
+            .collect(Collectors.toList());
+    assertEquals(1, queryTextEvents.size());
+    long queryId = queryTextEvents.get(0).getLong("queryId");
+
+    var callEvents = eventsOfType(events, JdbcCallEvent.class).stream()
+            .filter(event -> event.getLong("queryId") == queryId)
+            .collect(Collectors.toList());
+    assertEquals(3, callEvents.size());
+    for (RecordedEvent callEvent : callEvents) {
+      assertNull(callEvent.getString("query"));
+      assertNull(callEvent.getString("fingerprint"));
+    }
+  }
+
+  @Test
+  void queryTextDictionaryNewChunk() throws Exception {
+    assumeTrue(FlightRecorder.getFlightRecorder().getRecordings().isEmpty(), "other recording running");
+    String query = "SELECT id FROM test_table WHERE id = 1";
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcCallEvent.class);
+      recording.enable(JdbcQueryTextEvent.class);
+      // only the call event should reference the query after the new chunk
+      recording.disable(JdbcFetchEvent.class);
+    }, () -> {
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement();
+           var resultSet = statement.executeQuery(query)) {
+        // starting a recording starts a new chunk
+        try (var other = new Recording()) {
+          other.enable(JdbcQueryTextEvent.class);
+          other.disable(JdbcFetchEvent.class);
+          other.start();
+        }
+        resultSet.next();
+      }
+    });
+
+    var queryTextEvents = eventsOfType(events, JdbcQueryTextEvent.class).stream()
+            .filter(event -> query.equals(event.getString("query")))
+            .collect(Collectors.toList());
+    // once when the statement is executed and once in the chunk of the call event
+    assertEquals(2, queryTextEvents.size());
+    var callEvents = eventsOfType(events, JdbcCallEvent.class);
+    assertEquals(1, callEvents.size());
+    assertNull(callEvents.get(0).getString("query"));
+  }
+
+  @Test
+  void queryTextDictionaryOtherRecording() throws Exception {
+    String query = "SELECT id FROM test_table WHERE id = 1";
+    try (var other = new Recording()) {
+      // a recording with query strings but without the dictionary
+      other.enable(JdbcCallEvent.class);
+      other.start();
+      var events = EventRecorder.record(recording -> {
+        recording.enable(JdbcCallEvent.class);
+        recording.enable(JdbcQueryTextEvent.class);
+      }, () -> {
+        try (var connection = this.dataSource.getConnection();
+             var statement = connection.createStatement();
+             var resultSet = statement.executeQuery(query)) {
+          resultSet.next();
+        }
+      });
+
+      var callEvents = eventsOfType(events, JdbcCallEvent.class).stream()
+              .filter(event -> query.equals(event.getString("query")))
+              .collect(Collectors.toList());
+      assertEquals(1, callEvents.size());
+      assertEquals("SELECT id FROM test_table WHERE id = ?", callEvents.get(0).getString("fingerprint"));
+    }
+  }
+
+  @Test
+  void sqlFilter() throws Exception {
+    assumeTrue(FlightRecorder.getFlightRecorder().getRecordings().isEmpty(), "other recording running");
+    String included = "SELECT id FROM test_table WHERE id = 1";
+    String excluded = "SELECT id FROM test_table WHERE id = 2";
+    var events = EventRecorder.record(recording -> {
+      recording.enable(JdbcCallEvent.class).with("filter", "id = 1$");
+      recording.enable(JdbcOperationEvent.class);
+    }, () -> {
+      try (var connection = this.dataSource.getConnection()) {
+        try (var preparedStatement = connection.prepareStatement(included);
+             var resultSet = preparedStatement.executeQuery()) {
+          assertTrue(preparedStatement instanceof JfrPreparedStatement);
+          resultSet.next();
+        }
+        try (var preparedStatement = connection.prepareStatement(excluded);
+             var resultSet = preparedStatement.executeQuery()) {
+          // still wrapped so that later operations are recorded
+          assertTrue(preparedStatement instanceof JfrPreparedStatement);
+          assertSame(connection, preparedStatement.getConnection());
+          resultSet.next();
+        }
+        try (var statement = connection.createStatement();
+             var resultSet = statement.executeQuery(excluded)) {
+          assertTrue(resultSet instanceof JfrResultSet);
+          assertSame(statement, resultSet.getStatement());
+          resultSet.next();
+        }
+      }
+    });
+
+    var queries = eventsOfType(events, JdbcCallEvent.class).stream()
+            .map(event -> event.getString("query"))
+            .collect(Collectors.toList());
+    assertEquals(List.of(included), queries);
+    long excludedOperations = eventsOfType(events, JdbcOperationEvent.class).stream()
+            .filter(event -> "executeQuery".equals(event.getString("operationName")))
+            .filter(event -> excluded.equals(event.getString("query")))
+            .count();
+    assertEquals(2L, excludedOperations);
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.github.marschall.jfr.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void bucketBounds() {
+    for (long value : new long[] {0L, 1L, 7L, 8L, 9L, 15L, 16L, 17L, 1_000L, 123_456_789L, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.bucketIndex(value);
+      assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+      assertTrue(LatencyHistogram.lowerBound(index) <= value, "lower bound of " + value);
+      assertTrue(LatencyHistogram.upperBound(index) >= value, "upper bound of " + value);
+    }
+    for (int i = 1; i < LatencyHistogram.BUCKET_COUNT; i++) {
+      assertEquals(LatencyHistogram.upperBound(i - 1) + 1L, LatencyHistogram.lowerBound(i));
+    }
+  }
+
+  @Test
+  void percentiles() {
+    var histogram = new LatencyHistogram();
+    for (long i = 1L; i <= 1000L; i++) {
+      histogram.record(i * 1_000L);
+    }
+    var snapshot = histogram.snapshotAndReset();
+    assertEquals(1000L, snapshot.count);
+    assertEquals(1_000_000L, snapshot.maxTime);
+    assertEquals(500_500_000L, snapshot.totalTime);
+    assertWithinRelativeError(500_000L, snapshot.percentile(0.5d));
+    assertWithinRelativeError(990_000L, snapshot.percentile(0.99d));
+    assertEquals(1_000_000L, snapshot.percentile(1.0d));
+
+    assertEquals(0L, histogram.snapshotAndReset().count);
+  }
+
+  private static void assertWithinRelativeError(long expected, long actual) {
+    assertTrue(actual >= expected, () -> actual + " < " + expected);
+    assertTrue(actual <= expected * 1.125d, () -> actual + " > " + expected + " + 12.5%");
+  }
+
+}
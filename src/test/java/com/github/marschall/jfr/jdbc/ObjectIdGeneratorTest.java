@@ -0,0 +1,46 @@
+package com.github.marschall.jfr.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class ObjectIdGeneratorTest {
+
+  @Test
+  void uniqueAcrossThreads() throws Exception {
+    int threadCount = 8;
+    int idsPerThread = ObjectIdGenerator.BLOCK_SIZE * 3 + 17;
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>(threadCount);
+      for (int i = 0; i < threadCount; i++) {
+        tasks.add(() -> {
+          for (int j = 0; j < idsPerThread; j++) {
+            long id = ObjectIdGenerator.nextId();
+            assertTrue(id > 0L);
+            ids.add(id);
+          }
+          return null;
+        });
+      }
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(threadCount * idsPerThread, ids.size());
+  }
+
+}
@@ -0,0 +1,58 @@
+package com.github.marschall.jfr.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class QueryInfoTest {
+
+  @Test
+  void sameQuery() {
+    String sql = "SELECT 'query info same'";
+    assertSame(QueryInfo.of(sql), QueryInfo.of(new String(sql)));
+  }
+
+  @Test
+  void collision() {
+    String first = "SELECT 'query info collision'";
+    String second = collidingQuery(first);
+
+    QueryInfo firstInfo = QueryInfo.of(first);
+    firstInfo.fetchRowEstimate = 100;
+    firstInfo.fetchSize = 128;
+    StatementStatistics.record(firstInfo, 1_000L);
+
+    QueryInfo.of(second);
+
+    // the entry has been replaced and its state is lost
+    QueryInfo replaced = QueryInfo.of(first);
+    assertNotSame(firstInfo, replaced);
+    assertEquals(firstInfo.fingerprint, replaced.fingerprint);
+    assertEquals(firstInfo.queryId, replaced.queryId);
+    assertEquals(0, replaced.fetchRowEstimate);
+    assertEquals(0, replaced.fetchSize);
+
+    // the statistics are kept per fingerprint
+    StatementStatistics.record(replaced, 2_000L);
+    assertSame(firstInfo.histogram, replaced.histogram);
+  }
+
+  private static String collidingQuery(String sql) {
+    int index = index(sql);
+    for (int i = 0; ; i++) {
+      String candidate = "SELECT " + i;
+      if (index(candidate) == index) {
+        return candidate;
+      }
+    }
+  }
+
+  private static int index(String sql) {
+    // same as QueryInfo.of
+    int hash = sql.hashCode();
+    return (hash ^ (hash >>> 16)) & 4095;
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.github.marschall.jfr.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SqlNormalizerTest {
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+    "SELECT 1 FROM dual                                 | SELECT ? FROM dual",
+    "SELECT * FROM t1 WHERE id = 42                     | SELECT * FROM t1 WHERE id = ?",
+    "SELECT * FROM t WHERE x = 1.5e-3                   | SELECT * FROM t WHERE x = ?",
+    "SELECT * FROM t WHERE name = 'O''Brien'            | SELECT * FROM t WHERE name = ?",
+    "SELECT \"col 1\" FROM t                            | SELECT \"col 1\" FROM t",
+    "SELECT * FROM t WHERE id IN (1, 2, 3)              | SELECT * FROM t WHERE id IN (?...)",
+    "SELECT * FROM t WHERE id in(?,?,?)                 | SELECT * FROM t WHERE id IN (?...)",
+    "SELECT * FROM t WHERE id IN ('a', 'b')             | SELECT * FROM t WHERE id IN (?...)",
+    "SELECT * FROM t WHERE id IN (1)                    | SELECT * FROM t WHERE id IN (?...)",
+    "SELECT * FROM t WHERE id IN (?)                    | SELECT * FROM t WHERE id IN (?...)",
+    "SELECT * FROM t /* comment */ WHERE id = 1 -- end  | SELECT * FROM t WHERE id = ?",
+    "INSERT INTO t(a, b) VALUES (1, 'x')                | INSERT INTO t(a, b) VALUES (?, ?)",
+  })
+  void normalize(String sql, String expected) {
+    assertEquals(expected, SqlNormalizer.normalize(sql));
+  }
+
+  @Test
+  void inListLength() {
+    assertEquals(SqlNormalizer.normalize("SELECT * FROM t WHERE id IN (?)"),
+            SqlNormalizer.normalize("SELECT * FROM t WHERE id IN (?, ?)"));
+  }
+
+  @Test
+  void whitespace() {
+    assertEquals("SELECT * FROM t WHERE id = ?", SqlNormalizer.normalize(" SELECT *  FROM t\n\tWHERE id = ?\n"));
+  }
+
+  @Test
+  void hash() {
+    assertEquals(SqlNormalizer.hash("SELECT ?"), SqlNormalizer.hash("SELECT ?"));
+    assertNotEquals(SqlNormalizer.hash("SELECT ?"), SqlNormalizer.hash("SELECT ? FROM dual"));
+  }
+
+  @Test
+  void queryInfoCached() {
+    String sql = "SELECT * FROM t WHERE id = 42";
+    QueryInfo queryInfo = QueryInfo.of(sql);
+    assertSame(queryInfo, QueryInfo.of(sql));
+    assertSame(queryInfo, QueryInfo.of(new String(sql)));
+    assertEquals("SELECT * FROM t WHERE id = ?", queryInfo.fingerprint);
+    assertEquals(SqlNormalizer.hash(queryInfo.fingerprint), queryInfo.fingerprintHash);
+  }
+
+}
@@ -0,0 +1,64 @@
+package com.github.marschall.jfr.jdbc;
+
+import static com.github.marschall.jfr.jdbc.EventRecorder.eventsOfType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class StatementStatisticsTest {
+
+  private EmbeddedDatabase database;
+
+  private JfrDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    this.database = new EmbeddedDatabaseBuilder()
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+    this.dataSource = new JfrDataSource(this.database);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.database.shutdown();
+  }
+
+  @Test
+  void statisticsPerFingerprint() throws Exception {
+    var events = EventRecorder.record(() -> {
+      try (var connection = this.dataSource.getConnection();
+           var statement = connection.createStatement()) {
+        for (int i = 0; i < 10; i++) {
+          // different literals, same fingerprint
+          try (var resultSet = statement.executeQuery("SELECT 'statistics', " + i + " FROM dual")) {
+            resultSet.next();
+          }
+        }
+      }
+      StatementStatistics.emit();
+    });
+
+    long executionCount = 0L;
+    for (var event : eventsOfType(events, JdbcStatementStatisticsEvent.class)) {
+      if ("SELECT ?, ? FROM dual".equals(event.getString("fingerprint"))) {
+        executionCount += event.getLong("executionCount");
+        Duration p50 = event.getDuration("p50");
+        Duration p99 = event.getDuration("p99");
+        Duration maxTime = event.getDuration("maxTime");
+        assertTrue(p50.compareTo(p99) <= 0);
+        assertTrue(p99.compareTo(maxTime) <= 0);
+      }
+    }
+    assertEquals(10L, executionCount);
+  }
+
+}